@@ -9,6 +9,8 @@ import chalkbox.api.annotations.Output;
 import chalkbox.api.annotations.Pipe;
 import chalkbox.api.annotations.Prior;
 import chalkbox.api.annotations.Processor;
+import chalkbox.api.common.Execution;
+import chalkbox.api.common.ProcessGovernor;
 import chalkbox.api.config.ChalkboxConfig;
 import chalkbox.api.config.ConfigParseException;
 import chalkbox.api.config.ConfigParser;
@@ -21,21 +23,31 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class ChalkBox {
     private static final String USAGE = "Incorrect usage:" + System.lineSeparator()
             + "\tchalkbox <box file>" + System.lineSeparator()
-            + "\tchalkbox help <class>";
+            + "\tchalkbox help <class>" + System.lineSeparator()
+            + "\tchalkbox plan <box file>";
 
     private Map<String, List<Object>> streams = new HashMap<>();
-    private Class collector;
-    private Class processor;
-    private Class output;
+    private Class<?> collector;
+    private Class<?> processor;
+    private Class<?> output;
     private ChalkboxConfig config;
-    private boolean hasError;
+    private volatile boolean hasError;
+    private boolean streaming;
+    private boolean incremental;
+    private IncrementalRun incrementalRun;
 
     private PrintStream outputStream = System.out;
 
@@ -72,6 +84,24 @@ public class ChalkBox {
         validateConfigItems(collector);
         validateConfigItems(processor);
         validateConfigItems(output);
+
+        streaming = config.isSet("streaming")
+                && Boolean.parseBoolean(config.value("streaming"));
+        incremental = config.isSet("incremental")
+                && Boolean.parseBoolean(config.value("incremental"));
+
+        if (config.isSet("outputLimit")) {
+            try {
+                Execution.setOutputLimit(Integer.parseInt(config.value("outputLimit")));
+            } catch (NumberFormatException e) {
+                System.err.println("outputLimit must be a number of bytes");
+                hasError = true;
+            }
+        }
+
+        if (!ProcessGovernor.shared().configure(config.toMap())) {
+            hasError = true;
+        }
     }
 
     /**
@@ -91,11 +121,11 @@ public class ChalkBox {
      *
      * @param clazz The class to search for {@link ConfigItem}'s within.
      */
-    private void validateConfigItems(Class clazz) {
+    private void validateConfigItems(Class<?> clazz) {
         /* Also check the processor dependency processors */
         if (clazz.isAnnotationPresent(Processor.class)) {
-            Processor annotation = (Processor) clazz.getAnnotation(Processor.class);
-            for (Class dependency : annotation.depends()) {
+            Processor annotation = clazz.getAnnotation(Processor.class);
+            for (Class<?> dependency : annotation.depends()) {
                 validateConfigItems(dependency);
             }
         }
@@ -136,7 +166,7 @@ public class ChalkBox {
      * @param classConfig The configuration option to look for.
      * @return The loaded Class object.
      */
-    private Class loadClass(String classConfig) {
+    private Class<?> loadClass(String classConfig) {
         try {
             return Class.forName(config.value(classConfig));
         } catch (ClassNotFoundException cnf) {
@@ -151,6 +181,11 @@ public class ChalkBox {
             executeCollection(collector);
         }
 
+        if (!hasError && streaming && canStream(processor)) {
+            executeStreaming(processor, output);
+            return;
+        }
+
         if (!hasError) {
             executeProcess(processor);
         }
@@ -160,7 +195,7 @@ public class ChalkBox {
         }
     }
 
-    private static List<Method> methodsByAnnotation(Class clazz,
+    private static List<Method> methodsByAnnotation(Class<?> clazz,
                                                     Class<? extends Annotation> annotation) {
         List<Method> methods = new ArrayList<>();
         for (Method method : clazz.getMethods()) {
@@ -171,7 +206,7 @@ public class ChalkBox {
         return methods;
     }
 
-    private static List<Field> fieldsByAnnotation(Class clazz,
+    private static List<Field> fieldsByAnnotation(Class<?> clazz,
                                                   Class<? extends Annotation> annotation) {
         List<Field> fields = new ArrayList<>();
         for (Field field : clazz.getFields()) {
@@ -276,7 +311,7 @@ public class ChalkBox {
         return instance;
     }
 
-    public void executeCollection(Class collectorClass) {
+    public void executeCollection(Class<?> collectorClass) {
         if (!collectorClass.isAnnotationPresent(Collector.class)) {
             hasError = true;
             System.err.println("Collector class does not have @Collector annotation");
@@ -315,31 +350,93 @@ public class ChalkBox {
         runFinish(collectorClass, instance);
     }
 
-    public void executeProcess(Class processorClass) {
-        if (!processorClass.isAnnotationPresent(Processor.class)) {
+    /**
+     * Plan the execution of a processor and its dependencies.
+     *
+     * @param processorClass The processor to plan.
+     * @return The execution plan or null if the processor cannot be planned.
+     */
+    private ExecutionPlan planProcess(Class<?> processorClass) {
+        try {
+            return ExecutionPlan.plan(processorClass);
+        } catch (IllegalArgumentException e) {
             hasError = true;
-            System.err.println("Processor class does not have @Processor annotation");
-            return;
+            System.err.println(e.getMessage());
+            return null;
         }
-        Processor annotation = (Processor) processorClass.getAnnotation(Processor.class);
+    }
 
-        for (Class dependency : annotation.depends()) {
-            executeProcess(dependency);
-        }
+    /**
+     * Initialise each of the processors in a stage of an execution plan.
+     *
+     * <p>Processors within a stage are independent so their {@link Prior}
+     * methods are executed concurrently. The stage fails if any processor
+     * cannot be initialised.
+     *
+     * @param stage The processors to initialise.
+     * @return The initialised instances by their class.
+     */
+    private Map<Class<?>, Object> initStage(List<Class<?>> stage) {
+        Map<Class<?>, Object> instances = new ConcurrentHashMap<>();
+        ProcessRunner.executeProcess(new ArrayList<>(stage), clazz -> {
+            Object instance = initClass((Class<?>) clazz);
+            if (instance != null) {
+                instances.put((Class<?>) clazz, instance);
+            }
+            return instance;
+        }, stage.size());
 
-        List<Method> pipes = methodsByAnnotation(processorClass, Pipe.class);
+        for (Class<?> clazz : stage) {
+            if (!instances.containsKey(clazz)) {
+                hasError = true;
+                System.err.println("Unable to initialise " + clazz.getName());
+            }
+        }
+        return instances;
+    }
 
-        Object instance = initClass(processorClass);
-        if (hasError) {
+    /**
+     * Execute a processor after executing each of its dependencies.
+     *
+     * <p>Every processor in the dependency graph is initialised and
+     * executed exactly once, see {@link ExecutionPlan}.
+     *
+     * @param processorClass The processor to execute.
+     */
+    public void executeProcess(Class<?> processorClass) {
+        ExecutionPlan plan = planProcess(processorClass);
+        if (plan == null) {
             return;
         }
+        startIncremental(plan);
+
+        for (List<Class<?>> stage : plan.getStages()) {
+            Map<Class<?>, Object> instances = initStage(stage);
+            if (hasError) {
+                return;
+            }
+
+            for (Class<?> clazz : stage) {
+                executePipes(clazz, instances.get(clazz));
+            }
+        }
+    }
+
+    /**
+     * Execute the pipes, group pipes and finish methods of an initialised
+     * processor.
+     */
+    private void executePipes(Class<?> processorClass, Object instance) {
+        Processor annotation = processorClass.getAnnotation(Processor.class);
 
+        List<Method> pipes = methodsByAnnotation(processorClass, Pipe.class);
         for (Method pipe : pipes) {
             String stream = pipe.getAnnotation(Pipe.class).stream();
             List<Object> data = streams.get(stream);
 
-            streams.put(stream, ProcessRunner.executeProcess(data, instance,
-                    pipe, annotation.threads()));
+            streams.put(stream, ProcessRunner.executeProcess(data,
+                    item -> invokePipe(processorClass, instance, pipe, item),
+                    annotation.threads()));
         }
 
         List<Method> groupPipes = methodsByAnnotation(processorClass, GroupPipe.class);
@@ -357,7 +454,158 @@ public class ChalkBox {
         runFinish(processorClass, instance);
     }
 
-    public void sendOutput(Class outputClass) {
+    /**
+     * Prepare to reuse the results of a previous run if the box config
+     * enables incremental runs, see {@link IncrementalRun}.
+     */
+    private void startIncremental(ExecutionPlan plan) {
+        if (incremental) {
+            incrementalRun = new IncrementalRun(config, plan.getOrder());
+        }
+    }
+
+    /**
+     * Invoke a pipe method on an item, reusing the results of a previous
+     * run where possible.
+     */
+    private Object invokePipe(Class<?> processorClass, Object instance, Method pipe,
+                              Object item) throws Exception {
+        if (incrementalRun == null) {
+            return pipe.invoke(instance, item);
+        }
+        return incrementalRun.invoke(item, processorClass, instance, pipe);
+    }
+
+    /**
+     * Determine whether a processor and its dependencies can be executed in
+     * streaming mode.
+     *
+     * <p>{@link GroupPipe} methods require every item of a stream, so
+     * processors using them must be executed a stage at a time.
+     */
+    private boolean canStream(Class<?> processorClass) {
+        ExecutionPlan plan = planProcess(processorClass);
+        if (plan == null) {
+            return false;
+        }
+
+        for (Class<?> clazz : plan.getOrder()) {
+            if (!methodsByAnnotation(clazz, GroupPipe.class).isEmpty()) {
+                System.err.println("Streaming disabled: " + clazz.getName()
+                        + " has a @GroupPipe method");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Execute the processors and outputs on each item of a stream
+     * independently.
+     *
+     * <p>Rather than waiting for every item to complete a {@link Pipe} before
+     * starting the next, each item moves through every pipe of every
+     * processor and is then sent to the {@link Output#perItem()} outputs on
+     * its own. Results are therefore written as soon as an item has finished
+     * processing. Per item outputs are called one item at a time on a single
+     * thread, so they need not be thread safe.
+     *
+     * <p>Every other output is called once with the whole stream after all of
+     * the items have been processed, as when not streaming.
+     *
+     * <p>Items are processed with the smallest amount of threads requested by
+     * any of the processors.
+     *
+     * @param processorClass The processor to execute.
+     * @param outputClass The output to send processed items to.
+     */
+    public void executeStreaming(Class<?> processorClass, Class<?> outputClass) {
+        ExecutionPlan plan = planProcess(processorClass);
+        if (plan == null) {
+            return;
+        }
+        startIncremental(plan);
+
+        int threads = Integer.MAX_VALUE;
+        Map<Class<?>, Object> instances = new LinkedHashMap<>();
+        for (List<Class<?>> stage : plan.getStages()) {
+            Map<Class<?>, Object> initialised = initStage(stage);
+            if (hasError) {
+                return;
+            }
+
+            for (Class<?> clazz : stage) {
+                instances.put(clazz, initialised.get(clazz));
+
+                Processor annotation = clazz.getAnnotation(Processor.class);
+                threads = Math.min(threads, annotation.threads());
+            }
+        }
+
+        Object outputInstance = initClass(outputClass);
+        if (hasError) {
+            return;
+        }
+        List<Method> outputs = methodsByAnnotation(outputClass, Output.class);
+        ExecutorService outputThread = Executors.newSingleThreadExecutor();
+
+        for (String stream : new ArrayList<>(streams.keySet())) {
+            List<Object> data = streams.get(stream);
+            if (data == null) {
+                continue;
+            }
+
+            streams.put(stream, ProcessRunner.executeProcess(data, item -> {
+                Object current = item;
+                for (Map.Entry<Class<?>, Object> entry : instances.entrySet()) {
+                    for (Method pipe : methodsByAnnotation(entry.getKey(), Pipe.class)) {
+                        if (pipe.getAnnotation(Pipe.class).stream().equals(stream)) {
+                            current = invokePipe(entry.getKey(), entry.getValue(),
+                                    pipe, current);
+                        }
+                    }
+                }
+
+                List<Object> single = Collections.singletonList(current);
+                for (Method output : outputs) {
+                    Output annotation = output.getAnnotation(Output.class);
+                    if (annotation.perItem() && annotation.stream().equals(stream)) {
+                        outputThread.execute(() -> invokeOutput(output, outputInstance, single));
+                    }
+                }
+                return current;
+            }, threads));
+        }
+
+        outputThread.shutdown();
+        try {
+            outputThread.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            System.err.println("Interrupted while writing output");
+            return;
+        }
+
+        for (Map.Entry<Class<?>, Object> entry : instances.entrySet()) {
+            runFinish(entry.getKey(), entry.getValue());
+        }
+
+        for (Method output : outputs) {
+            Output annotation = output.getAnnotation(Output.class);
+            if (!annotation.perItem()) {
+                invokeOutput(output, outputInstance, streams.get(annotation.stream()));
+            }
+        }
+    }
+
+    private void invokeOutput(Method output, Object instance, List<Object> items) {
+        try {
+            output.invoke(instance, outputStream, items);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void sendOutput(Class<?> outputClass) {
         List<Method> outputs = methodsByAnnotation(outputClass, Output.class);
 
         Object instance = initClass(outputClass);
@@ -367,35 +615,49 @@ public class ChalkBox {
 
         for (Method output : outputs) {
             String stream = output.getAnnotation(Output.class).stream();
-            try {
-                output.invoke(instance, outputStream, streams.get(stream));
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+            invokeOutput(output, instance, streams.get(stream));
         }
     }
 
+    /**
+     * Describe the order in which the configured processor and its
+     * dependencies will be executed.
+     *
+     * @return The execution plan of the configured processor.
+     */
+    public String plan() {
+        if (processor == null) {
+            return "No processor class to plan";
+        }
+
+        ExecutionPlan plan = planProcess(processor);
+        if (plan == null) {
+            return "Unable to plan processor: " + processor.getName();
+        }
+        return plan.toString();
+    }
+
     public static String classHelp(String className) {
         StringBuilder builder = new StringBuilder();
         builder.append(className).append(System.lineSeparator());
-        Class clazz;
+        Class<?> clazz;
         try {
             clazz = Class.forName(className);
         } catch (ClassNotFoundException cnf) {
             return "Unable to find class: " + className;
         }
 
-        Collector collector = (Collector) clazz.getAnnotation(Collector.class);
+        Collector collector = clazz.getAnnotation(Collector.class);
         if (collector != null) {
             builder.append(collector.description())
                     .append(System.lineSeparator());
         }
-        Processor processor = (Processor) clazz.getAnnotation(Processor.class);
+        Processor processor = clazz.getAnnotation(Processor.class);
         StringBuilder dependants = new StringBuilder();
         if (processor != null) {
             builder.append(processor.description())
                     .append(System.lineSeparator());
-            for (Class dependency : processor.depends()) {
+            for (Class<?> dependency : processor.depends()) {
                 dependants.append("Depends on ").append(classHelp(dependency.getName()));
             }
         }
@@ -419,6 +681,11 @@ public class ChalkBox {
 
     public static void main(String[] args) throws ConfigParseException {
         if (args.length == 2) {
+            if (args[0].equals("plan")) {
+                ChalkboxConfig config = ConfigParser.box().read(Paths.get(args[1]));
+                System.out.println(new ChalkBox(config).plan());
+                return;
+            }
             if (!args[0].equals("help")) {
                 System.err.println(USAGE);
                 return;
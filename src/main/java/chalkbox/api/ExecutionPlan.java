@@ -0,0 +1,145 @@
+package chalkbox.api;
+
+import chalkbox.api.annotations.Processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The order in which a processor and all of its dependencies are executed.
+ *
+ * <p>Dependencies declared through {@link Processor#depends()} form a directed
+ * acyclic graph. Each processor in the graph appears exactly once in the plan,
+ * even when several processors share a dependency.
+ *
+ * <p>Processors are grouped into stages. A processor is placed in the stage
+ * after its deepest dependency, so the processors within a stage are
+ * independent of each other and may be initialised concurrently.
+ *
+ * <p>For example, a processor C depending on A and B, where B also depends
+ * on A, produces the plan:
+ * <pre>
+ * Stage 1: A
+ * Stage 2: B
+ * Stage 3: C
+ * </pre>
+ */
+public class ExecutionPlan {
+    private final List<List<Class<?>>> stages = new ArrayList<>();
+
+    private ExecutionPlan() {
+
+    }
+
+    /**
+     * Plan the execution of a processor and its dependencies.
+     *
+     * @param processorClass The processor to execute.
+     * @return The execution plan for the processor.
+     *
+     * @throws IllegalArgumentException If a class in the graph does not have
+     *                                  a {@link Processor} annotation or if the
+     *                                  dependencies contain a cycle.
+     */
+    public static ExecutionPlan plan(Class<?> processorClass) {
+        Map<Class<?>, Integer> depths = new LinkedHashMap<>();
+        depth(processorClass, depths, new HashSet<>());
+
+        ExecutionPlan plan = new ExecutionPlan();
+        for (Map.Entry<Class<?>, Integer> entry : depths.entrySet()) {
+            while (plan.stages.size() <= entry.getValue()) {
+                plan.stages.add(new ArrayList<>());
+            }
+            plan.stages.get(entry.getValue()).add(entry.getKey());
+        }
+
+        return plan;
+    }
+
+    /**
+     * Calculate the stage of a processor, recording the stage of the
+     * processor and each of its dependencies.
+     *
+     * @param processorClass The processor to calculate the stage of.
+     * @param depths The already calculated stages of processors.
+     * @param visiting The processors currently being visited, used to detect cycles.
+     * @return The stage of the processor.
+     */
+    private static int depth(Class<?> processorClass, Map<Class<?>, Integer> depths,
+                             Set<Class<?>> visiting) {
+        Integer known = depths.get(processorClass);
+        if (known != null) {
+            return known;
+        }
+
+        if (!processorClass.isAnnotationPresent(Processor.class)) {
+            throw new IllegalArgumentException(processorClass.getName()
+                    + " does not have @Processor annotation");
+        }
+        if (!visiting.add(processorClass)) {
+            throw new IllegalArgumentException("Processor dependencies contain a cycle through "
+                    + processorClass.getName());
+        }
+
+        Processor annotation = processorClass.getAnnotation(Processor.class);
+        int depth = 0;
+        for (Class<?> dependency : annotation.depends()) {
+            depth = Math.max(depth, depth(dependency, depths, visiting) + 1);
+        }
+
+        visiting.remove(processorClass);
+        depths.put(processorClass, depth);
+        return depth;
+    }
+
+    /**
+     * @return The stages of the plan, where each stage only depends on
+     *         processors of earlier stages.
+     */
+    public List<List<Class<?>>> getStages() {
+        List<List<Class<?>>> result = new ArrayList<>();
+        for (List<Class<?>> stage : stages) {
+            result.add(Collections.unmodifiableList(stage));
+        }
+        return result;
+    }
+
+    /**
+     * @return Every processor in the plan, ordered such that each processor
+     *         comes after all of its dependencies.
+     */
+    public List<Class<?>> getOrder() {
+        List<Class<?>> order = new ArrayList<>();
+        for (List<Class<?>> stage : stages) {
+            order.addAll(stage);
+        }
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < stages.size(); i++) {
+            builder.append("Stage ").append(i + 1).append(":")
+                    .append(System.lineSeparator());
+            for (Class<?> processor : stages.get(i)) {
+                Processor annotation = processor.getAnnotation(Processor.class);
+                builder.append("\t").append(processor.getName())
+                        .append(" (threads: ").append(annotation.threads()).append(")");
+                if (annotation.depends().length > 0) {
+                    builder.append(" after");
+                    for (Class<?> dependency : annotation.depends()) {
+                        builder.append(" ").append(dependency.getSimpleName());
+                    }
+                }
+                builder.append(System.lineSeparator());
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,311 @@
+package chalkbox.api;
+
+import chalkbox.api.annotations.ConfigItem;
+import chalkbox.api.annotations.Pipe;
+import chalkbox.api.collections.Collection;
+import chalkbox.api.collections.Data;
+import chalkbox.api.config.ChalkboxConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reuses the results of {@link Pipe} methods from a previous run when none of
+ * their inputs have changed.
+ *
+ * <p>Each time a pipe processes a {@link Collection} a fingerprint of its
+ * inputs is stored in the results of the collection:
+ * <pre>
+ * "incremental": {
+ *     "package1.Processor#pipe": {
+ *         "fingerprint": "...",
+ *         "files": false
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>The fingerprint of a pipe is computed from the source of the collection,
+ * the byte code of the processor, the values of the processor's
+ * {@link ConfigItem}s, the contents of any {@link ConfigItem#input()} files
+ * and the fingerprint of the pipe before it on the same stream. When the
+ * results of a previous run are loaded by the collector and the stored
+ * fingerprint matches, the pipe is skipped and the stored results are kept.
+ *
+ * <p>The files flag records whether a pipe changed the working directory of
+ * a collection, e.g. by compiling classes into it. Those files are not kept
+ * between runs, so such a pipe is still executed whenever a pipe after it
+ * has to be executed.
+ */
+class IncrementalRun {
+    private static final String ROOT = "incremental";
+
+    private final ChalkboxConfig config;
+
+    /** The identifiers of the pipes on each stream in execution order */
+    private final Map<String, List<String>> chains = new HashMap<>();
+    /** The fingerprint of everything except the collection for each pipe */
+    private final Map<String, String> inputs = new HashMap<>();
+    /** Hashes of each collection's source, keyed by the source path */
+    private final Map<String, String> sources = new ConcurrentHashMap<>();
+
+    /**
+     * Prepare an incremental run of processors.
+     *
+     * @param config The configuration the processors are executed with.
+     * @param order The processors in the order they are executed.
+     */
+    IncrementalRun(ChalkboxConfig config, List<Class<?>> order) {
+        this.config = config;
+
+        for (Class<?> clazz : order) {
+            String configuration = configuration(clazz);
+            for (Method method : clazz.getMethods()) {
+                if (!method.isAnnotationPresent(Pipe.class)) {
+                    continue;
+                }
+
+                String stream = method.getAnnotation(Pipe.class).stream();
+                String id = id(clazz, method);
+                chains.computeIfAbsent(stream, s -> new ArrayList<>()).add(id);
+                inputs.put(id, configuration);
+            }
+        }
+    }
+
+    /**
+     * Invoke a pipe method on an item unless the results of a previous
+     * invocation with the same inputs can be reused.
+     *
+     * @param item The item to process.
+     * @param clazz The processor class.
+     * @param instance The processor instance.
+     * @param pipe The pipe method to invoke.
+     * @return The processed item.
+     * @throws Exception If the pipe method fails.
+     */
+    Object invoke(Object item, Class<?> clazz, Object instance, Method pipe) throws Exception {
+        String id = id(clazz, pipe);
+        List<String> chain = chains.get(pipe.getAnnotation(Pipe.class).stream());
+        if (!(item instanceof Collection) || chain == null || !chain.contains(id)) {
+            return pipe.invoke(instance, item);
+        }
+
+        Collection submission = (Collection) item;
+        String source = sourceHash(submission);
+        if (source == null) {
+            return pipe.invoke(instance, item);
+        }
+
+        /* Chain the fingerprint of each pipe to the pipes before it */
+        List<String> fingerprints = new ArrayList<>();
+        String previous = "";
+        for (String pipeId : chain) {
+            previous = hash(pipeId, previous, source, inputs.get(pipeId));
+            fingerprints.add(previous);
+        }
+
+        int index = chain.indexOf(id);
+        if (!mustRun(submission.getResults(), chain, fingerprints, index)) {
+            return submission;
+        }
+
+        Map<String, Long> before = snapshot(submission);
+        Object result = pipe.invoke(instance, item);
+        boolean files = !before.equals(snapshot(submission));
+
+        if (result instanceof Collection) {
+            Data results = ((Collection) result).getResults();
+            results.set(key(id, "fingerprint"), fingerprints.get(index));
+            results.set(key(id, "files"), files);
+        }
+        return result;
+    }
+
+    /**
+     * Determine whether a pipe must be executed for a collection.
+     *
+     * <p>A pipe is executed if its stored fingerprint differs, or if it
+     * changes the working directory and any later pipe is executed.
+     */
+    private boolean mustRun(Data results, List<String> chain,
+                            List<String> fingerprints, int index) {
+        boolean later = false;
+        for (int i = chain.size() - 1; i >= index; i--) {
+            String id = chain.get(i);
+            boolean changed = !fingerprints.get(i).equals(results.get(key(id, "fingerprint")));
+            boolean run = changed || (later && results.is(key(id, "files")));
+            if (i == index) {
+                return run;
+            }
+            later = later || run;
+        }
+        return true;
+    }
+
+    /**
+     * Fingerprint the configuration of a processor, its byte code and the
+     * contents of its input files.
+     */
+    private String configuration(Class<?> clazz) {
+        List<String> parts = new ArrayList<>();
+        parts.add(clazz.getName());
+        parts.add(byteCode(clazz));
+
+        /* Sort the fields as their order is unspecified */
+        List<Field> fields = new ArrayList<>(Arrays.asList(clazz.getFields()));
+        fields.sort(Comparator.comparing(Field::getName));
+        for (Field field : fields) {
+            ConfigItem annotation = field.getAnnotation(ConfigItem.class);
+            if (annotation == null) {
+                continue;
+            }
+
+            String key = annotation.key().isEmpty() ? field.getName() : annotation.key();
+            String value = config.isSet(key) ? config.value(key) : null;
+            parts.add(key + "=" + value);
+
+            if (annotation.input() && value != null) {
+                parts.add(contents(value));
+            }
+        }
+
+        return hash(parts.toArray(new String[0]));
+    }
+
+    /**
+     * Hash the source of a collection, once per collection.
+     *
+     * @return The hash or null if the source cannot be read.
+     */
+    private String sourceHash(Collection submission) {
+        String path = submission.getSource().getUnmaskedPath();
+        String hash = sources.get(path);
+        if (hash != null) {
+            return hash;
+        }
+
+        try {
+            hash = submission.getSource().hash();
+        } catch (IOException e) {
+            return null;
+        }
+        if (hash != null) {
+            sources.put(path, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Record the size and modification time of every file in the working
+     * directory of a collection.
+     */
+    private static Map<String, Long> snapshot(Collection submission) {
+        Map<String, Long> files = new HashMap<>();
+        Path root = new File(submission.getWorking().getUnmaskedPath()).toPath();
+        if (!Files.isDirectory(root)) {
+            return files;
+        }
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                File file = path.toFile();
+                files.put(path.toString(), file.length() * 31 + file.lastModified());
+            }
+        } catch (IOException e) {
+            /* Assume the working directory changed */
+            files.put(root.toString(), System.nanoTime());
+        }
+        return files;
+    }
+
+    /**
+     * Hash the byte code of a class so that changes to a processor
+     * invalidate its previous results.
+     */
+    private static String byteCode(Class<?> clazz) {
+        String resource = clazz.getName().replace(".", "/") + ".class";
+        ClassLoader loader = clazz.getClassLoader();
+        if (loader == null) {
+            return "";
+        }
+
+        try (InputStream stream = loader.getResourceAsStream(resource)) {
+            if (stream == null) {
+                return "";
+            }
+            MessageDigest digest = digest();
+            digest.update(stream.readAllBytes());
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Hash the contents of a file or every file within a directory.
+     */
+    private static String contents(String location) {
+        Path root = new File(location).toPath();
+        MessageDigest digest = digest();
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.filter(Files::isRegularFile).sorted()
+                    .collect(Collectors.toList())) {
+                update(digest, root.relativize(path).toString());
+                digest.update(Files.readAllBytes(path));
+            }
+        } catch (IOException e) {
+            update(digest, "missing");
+        }
+
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    private static String id(Class<?> clazz, Method pipe) {
+        return clazz.getName() + "#" + pipe.getName();
+    }
+
+    private static String key(String id, String field) {
+        return ROOT + "." + id.replace(".", "\\.") + "." + field;
+    }
+
+    private static String hash(String... parts) {
+        MessageDigest digest = digest();
+        for (String part : parts) {
+            update(digest, String.valueOf(part));
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+        digest.update((bytes.length + ":").getBytes(StandardCharsets.UTF_8));
+        digest.update(bytes);
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException algo) {
+            throw new IllegalStateException(algo); // will surely never occur
+        }
+    }
+}
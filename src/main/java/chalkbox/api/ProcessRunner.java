@@ -3,64 +3,120 @@ package chalkbox.api;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-public class ProcessRunner extends Thread {
-    private List<Object> dataSegment;
-    private List<Object> updatedSegment = new ArrayList<>();
+/**
+ * Executes a task, typically a single {@link chalkbox.api.annotations.Pipe}
+ * method, on a single item of a stream.
+ *
+ * <p>Items are scheduled as individual tasks on a shared work-stealing pool,
+ * one pool per thread count requested by {@link chalkbox.api.annotations.Processor#threads()},
+ * so that a slow item only holds up the thread processing it.
+ */
+public class ProcessRunner implements Callable<Object> {
+    /** Shared work-stealing pools keyed by their parallelism */
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
 
-    private Object instance;
-    private Method method;
+    private Object item;
+    private Task task;
 
-    public ProcessRunner(List<Object> dataSegment, Object instance, Method method) {
-        this.dataSegment = dataSegment;
-        this.instance = instance;
-        this.method = method;
+    /**
+     * A unit of work performed on an item of a stream.
+     */
+    @FunctionalInterface
+    public interface Task {
+        Object apply(Object item) throws Exception;
     }
 
-    public List<Object> getResults() {
-        return updatedSegment;
+    public ProcessRunner(Object item, Task task) {
+        this.item = item;
+        this.task = task;
+    }
+
+    public ProcessRunner(Object item, Object instance, Method method) {
+        this(item, value -> method.invoke(instance, value));
     }
 
     @Override
-    public void run() {
-        for (Object item : dataSegment) {
-            try {
-                updatedSegment.add(method.invoke(instance, item));
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                e.printStackTrace();
-            }
-        }
+    public Object call() throws Exception {
+        return task.apply(item);
+    }
+
+    /**
+     * Get the shared pool for the given amount of threads, creating it if
+     * it does not yet exist.
+     *
+     * <p>Pools run in asynchronous (FIFO) mode so that items are started in
+     * the order they were submitted.
+     *
+     * @param threadNumber The parallelism of the pool.
+     * @return A work-stealing pool with the given parallelism.
+     */
+    static ForkJoinPool getPool(int threadNumber) {
+        int parallelism = threadNumber > 0 ? threadNumber : 1;
+        return POOLS.computeIfAbsent(parallelism, threads -> new ForkJoinPool(threads,
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true));
     }
 
+    /**
+     * Execute a method on each item of the data, returning the results in
+     * the same order as the data.
+     *
+     * <p>Items where the method throws an exception are omitted from the
+     * results.
+     *
+     * @param data The items to process.
+     * @param instance The instance to invoke the method on.
+     * @param method The method to invoke with each item.
+     * @param threadNumber The maximum amount of items to process at once.
+     * @return The results of invoking the method on each item.
+     */
     public static List<Object> executeProcess(List<Object> data, Object instance,
                                               Method method, int threadNumber) {
-        List<Object> updated = new ArrayList<>();
+        return executeProcess(data,
+                item -> method.invoke(instance, item), threadNumber);
+    }
 
-        AtomicInteger counter = new AtomicInteger();
-        int threadCount = data.size() / threadNumber;
-        int threadAmount = threadCount > 0 ? threadCount : 1;
-        Collection<List<Object>> split = data.stream()
-                .collect(Collectors.groupingBy(it -> counter.getAndIncrement() / threadAmount))
-                .values();
+    /**
+     * Execute a task on each item of the data, returning the results in
+     * the same order as the data.
+     *
+     * <p>Items where the task throws an exception are omitted from the
+     * results.
+     *
+     * @param data The items to process.
+     * @param task The task to perform on each item.
+     * @param threadNumber The maximum amount of items to process at once.
+     * @return The results of performing the task on each item.
+     */
+    public static List<Object> executeProcess(List<Object> data, Task task,
+                                              int threadNumber) {
+        ForkJoinPool pool = getPool(threadNumber);
 
-        List<ProcessRunner> threads = new ArrayList<>();
-        for (List<Object> dataSegment : split) {
-            ProcessRunner processRunner = new ProcessRunner(dataSegment, instance, method);
-            threads.add(processRunner);
-            processRunner.start();
+        List<ForkJoinTask<Object>> tasks = new ArrayList<>(data.size());
+        for (Object item : data) {
+            tasks.add(pool.submit(new ProcessRunner(item, task)));
         }
 
-        for (ProcessRunner thread : threads) {
+        List<Object> updated = new ArrayList<>(data.size());
+        for (ForkJoinTask<Object> future : tasks) {
             try {
-                thread.join();
+                updated.add(future.get());
             } catch (InterruptedException e) {
                 e.printStackTrace();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof InvocationTargetException) {
+                    cause = ((InvocationTargetException) cause).getTargetException();
+                }
+                cause.printStackTrace();
             }
-            updated.addAll(thread.getResults());
         }
 
         return updated;
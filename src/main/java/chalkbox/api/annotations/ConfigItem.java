@@ -10,6 +10,8 @@ import java.lang.annotation.Target;
  *
  * <p>If the key is empty (the default) the fields name will be used.
  * <p>The required key indicates if an error should be thrown when the configuration is missing.
+ * <p>The input key indicates that the item names a file or directory whose contents affect the
+ * results of the processor, such as a sample solution or tests, see incremental runs.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
@@ -17,4 +19,5 @@ public @interface ConfigItem {
     String key() default "";
     String description() default "";
     boolean required() default true;
+    boolean input() default false;
 }
@@ -9,10 +9,23 @@ import java.lang.annotation.Target;
 
 /**
  * An annotation for methods which produces output.
+ *
+ * <p>Output methods are given every item of a stream at once. When
+ * streaming, outputs marked {@link #perItem()} are instead called with each
+ * item as soon as it has been processed, one item at a time and always
+ * from the same thread.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Output {
     String stream() default "submissions";
     Class type() default Collection.class;
+
+    /**
+     * Whether the output can be called once for each item of a stream,
+     * rather than once with the whole stream. Only outputs that handle each
+     * item independently, without headers, totals or connections opened per
+     * call, should be marked.
+     */
+    boolean perItem() default false;
 }
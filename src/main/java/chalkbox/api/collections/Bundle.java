@@ -22,7 +22,7 @@ import java.util.stream.Stream;
  */
 public class Bundle {
     /* Name of files stored within this bundle */
-    private List<String> files = new ArrayList<>();
+    private final FileIndex files;
     /* Root folder */
     private File folder;
 
@@ -33,11 +33,14 @@ public class Bundle {
      */
     public Bundle() throws IOException {
         this.folder = Files.createTempDirectory("temp").toFile();
+        this.files = new FileIndex(folder);
     }
 
     /**
      * Create a new bundle of an existing folder.
      *
+     * <p>The folder is scanned for files the first time they are needed.
+     *
      * @param folder an existing folder mocked by the bundle
      *
      * @throws NullPointerException if the Bundle folder does not exist
@@ -47,7 +50,8 @@ public class Bundle {
             throw new NullPointerException();
         }
         this.folder = folder;
-        this.files = FileLoader.loadFiles(folder.getPath());
+        this.files = new FileIndex(folder);
+        this.files.invalidate("");
     }
 
     /**
@@ -56,7 +60,7 @@ public class Bundle {
      * @return File names of files in this bundle
      */
     public List<String> getFileNames() {
-        return new ArrayList<>(files);
+        return files.list();
     }
 
     /** Return the list of files matching a certain extension in this bundle.
@@ -65,13 +69,7 @@ public class Bundle {
      * @return A list of file names relative to this bundle
      */
     public List<String> getFileNames(String extension) {
-        List<String> filenames = new ArrayList<>();
-        for (String filename : files) {
-            if (filename.endsWith(extension)) {
-                filenames.add(filename);
-            }
-        }
-        return filenames;
+        return files.list(extension);
     }
 
     /**
@@ -94,10 +92,12 @@ public class Bundle {
      * @return A list of class names within this bundle.
      */
     public List<String> getClasses(String sourceRoot) {
-        Bundle sources = getBundle(sourceRoot);
+        String prefix = sourceRoot.isEmpty() ? "" : sourceRoot + "/";
         List<String> classes = new ArrayList<>();
-        for (String filename : sources.getFileNames(".java")) {
-            classes.add(getClassName(filename));
+        for (String filename : getFileNames(".java")) {
+            if (filename.startsWith(prefix)) {
+                classes.add(getClassName(filename.substring(prefix.length())));
+            }
         }
         return classes;
     }
@@ -248,6 +248,8 @@ public class Bundle {
         if (!makeDir(uri)) {
             throw new IOException("Unable to create the subdirectory");
         }
+        /* Files written through the new bundle are not seen by this one */
+        files.invalidate(uri);
 
         Bundle bundle;
         try {
@@ -266,7 +268,11 @@ public class Bundle {
      */
     public boolean deleteFile(String uri) {
         File file = new File(getUnmaskedPath(uri));
-        return file.delete();
+        if (!file.delete()) {
+            return false;
+        }
+        files.remove(uri);
+        return true;
     }
 
     /**
@@ -279,13 +285,31 @@ public class Bundle {
         File dest = folder;
 
         FileUtils.copyDirectory(src, dest);
+        for (String file : FileLoader.loadFiles(src.getPath())) {
+            files.add(file);
+        }
     }
 
     /**
      * Reload the files stored within this bundle.
+     *
+     * <p>The bundle is rescanned the next time its files are needed, prefer
+     * {@link #refresh(String)} when only part of the bundle was written to.
      */
     public void refresh() {
-        files = FileLoader.loadFiles(folder.getPath());
+        files.invalidate("");
+    }
+
+    /**
+     * Reload a file or directory within this bundle after it has been
+     * written to by something other than the bundle, such as a compiler.
+     *
+     * <p>Only that path is rescanned, the next time the files are needed.
+     *
+     * @param uri The path relative to the bundle that was written to.
+     */
+    public void refresh(String uri) {
+        files.invalidate(uri);
     }
 
     /**
@@ -314,6 +338,6 @@ public class Bundle {
 
     @Override
     public String toString() {
-        return folder.toString() + ": " + files.toString();
+        return folder.toString() + ": " + files.list().toString();
     }
 }
@@ -1,7 +1,10 @@
 package chalkbox.api.collections;
 
+import chalkbox.api.results.Result;
+
 import java.io.File;
 import java.io.IOException;
+import java.util.function.Function;
 
 /**
  * A collection contains a folder bundle, associated metadata and result data
@@ -10,6 +13,7 @@ public class Collection {
     private Bundle source;
     private Bundle working;
     private Data results;
+    private final TypedResults typedResults = new TypedResults();
 
     /**
      * Construct a new collection with a set of metadata
@@ -39,6 +43,31 @@ public class Collection {
         return results;
     }
 
+    /**
+     * Record a typed result, writing it into the result data at its path.
+     *
+     * @param path The path of the result in the result data.
+     * @param result The result to record.
+     */
+    public void setResult(DataPath path, Result result) {
+        typedResults.set(results, path, result);
+    }
+
+    /**
+     * Get a typed result recorded at a path. Results only present in the
+     * result data, e.g. loaded from a previous run, or written over since
+     * they were recorded are read from it.
+     *
+     * @param path The path of the result in the result data.
+     * @param type The type of the result.
+     * @param read Reads the result from its JSON object, e.g. TestResult::of.
+     * @return The result or null if there is no result at the path.
+     */
+    public <T extends Result> T getResult(DataPath path, Class<T> type,
+                                          Function<Data, T> read) {
+        return typedResults.get(results, path, type, read);
+    }
+
     @Override
     public String toString() {
         return results.toString() + " " + source.toString() + " " + working.toString();
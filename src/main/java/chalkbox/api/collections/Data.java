@@ -1,37 +1,57 @@
 package chalkbox.api.collections;
 
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * A mapping of keys to values in a JSON format
+ *
+ * <p>Copying a data collection is cheap: the copy shares the tree of the
+ * original until either is written to, see {@link DataNode}. Nested objects
+ * returned by {@link #get(String)} are data collections sharing part of the
+ * tree in the same way, so writing to them never changes the collection
+ * they came from.
+ *
+ * <p>Lists and maps stored with {@link #set(String, Object)} are copied
+ * when they are stored and cannot be modified once read back, so changing
+ * the original collection afterwards does not change the data or its
+ * copies.
  */
 public class Data {
-    private JSONObject json;
+    private DataNode json;
 
     /**
      * Construct a new empty data collection
      */
     public Data() {
-        json = new JSONObject();
+        json = new DataNode();
     }
 
     /**
      * Construct a new data collection from a JSON string
      */
     public Data(String json) {
-        JSONParser parser = new JSONParser();
         try {
-            this.json = (JSONObject) parser.parse(json);
-        } catch (ParseException pe) {
-            this.json = new JSONObject();
+            this.json = parse(new StringReader(json));
+        } catch (IOException | RuntimeException e) {
+            this.json = new DataNode();
         }
     }
 
@@ -41,7 +61,8 @@ public class Data {
      * @param data The data to copy
      */
     public Data(Data data) {
-        this(data.json.toJSONString());
+        data.json.share();
+        this.json = data.json;
     }
 
     /**
@@ -51,25 +72,26 @@ public class Data {
      * @throws IOException If there is an error parsing the file
      */
     public Data(File file) throws IOException {
-        FileReader reader = new FileReader(file);
-        JSONParser parser = new JSONParser();
-        JSONObject json;
-        try {
-            Object object = parser.parse(reader);
-            if (object instanceof JSONObject) {
-                json = (JSONObject) object;
-            } else {
-                throw new IOException();
-            }
-        } catch (IOException | ParseException pe) {
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            this.json = parse(reader);
+        } catch (IOException | RuntimeException e) {
             throw new IOException("Unable to parse JSON file");
-        } finally {
-            reader.close();
         }
+    }
 
+    private Data(DataNode json) {
         this.json = json;
     }
 
+    private static DataNode parse(Reader input) throws IOException {
+        JsonReader reader = new JsonReader(input);
+        reader.setLenient(true);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new IOException("JSON is not an object");
+        }
+        return DataNode.read(reader);
+    }
+
     /**
      * @return The keys of a data object.
      */
@@ -81,14 +103,7 @@ public class Data {
      * @return The keys of a data object at a given key.
      */
     public Set<String> keys(String key) {
-        Object json = get(key);
-        if (json instanceof JSONObject) {
-            return ((JSONObject) json).keySet();
-        }
-        if (json instanceof Data) {
-            return ((Data) json).keys();
-        }
-        return new HashSet<>();
+        return keys(DataPath.of(key));
     }
 
     /**
@@ -105,6 +120,31 @@ public class Data {
         return false;
     }
 
+    /**
+     * Return a boolean value at a path, if the path doesn't hold a boolean returns false.
+     *
+     * @param path The path to search for
+     * @return true if path holds a value true boolean value
+     */
+    public boolean is(DataPath path) {
+        Object value = get(path);
+        if (value instanceof Boolean) {
+            return (boolean) value;
+        }
+        return false;
+    }
+
+    /**
+     * @return The keys of a data object at a given path.
+     */
+    public Set<String> keys(DataPath path) {
+        Object json = find(path);
+        if (json instanceof DataNode) {
+            return ((DataNode) json).keySet();
+        }
+        return new HashSet<>();
+    }
+
     /**
      * Get a value stored at the given key
      *
@@ -112,26 +152,64 @@ public class Data {
      * @return The value stored in this data collection
      */
     public Object get(String key) {
-        if (!key.contains(".")) {
-            return json.get(key);
+        if (key.indexOf('.') < 0) {
+            return view(json.get(key));
         }
+        return get(DataPath.of(key));
+    }
+
+    /**
+     * Get a value stored at the given path
+     *
+     * @param path The path to lookup
+     * @return The value stored in this data collection
+     */
+    public Object get(DataPath path) {
+        return view(find(path));
+    }
 
-        String[] keys = key.split("(?<!\\\\)\\.");
-        JSONObject json = this.json;
-        for (int i = 0; i < keys.length - 1; i++) {
-            String keyValue = keys[i].replace("\\.", ".");
+    private Object find(DataPath path) {
+        DataNode json = this.json;
+        int last = path.size() - 1;
+        for (int i = 0; i < last; i++) {
+            String keyValue = path.get(i);
             if (!json.containsKey(keyValue)) {
                 return null;
             } else {
                 Object inner = json.get(keyValue);
-                if (inner instanceof JSONObject) {
-                    json = (JSONObject) inner;
-                } else if (inner instanceof Data) {
-                    json = ((Data) inner).json;
+                if (inner instanceof DataNode) {
+                    json = (DataNode) inner;
                 }
             }
         }
-        return json.get(keys[keys.length - 1].replace("\\.", "."));
+        return json.get(path.get(last));
+    }
+
+    /**
+     * Get the value stored at a path, to detect whether it is later changed.
+     *
+     * <p>The value is marked as shared, so writing to it, or to anything
+     * within it, replaces it with a copy rather than changing it in place.
+     * Writing over the value or any object containing it also replaces it.
+     * The value is unchanged for as long as the same object is returned.
+     *
+     * @param path The path to lookup
+     * @return The value at the path, compared by identity, or null if there is none
+     */
+    Object revision(DataPath path) {
+        Object value = find(path);
+        if (value instanceof DataNode) {
+            ((DataNode) value).share();
+        }
+        return value;
+    }
+
+    private static Object view(Object value) {
+        if (value instanceof DataNode) {
+            ((DataNode) value).share();
+            return new Data((DataNode) value);
+        }
+        return value;
     }
 
     /**
@@ -141,33 +219,104 @@ public class Data {
      * @param value The value to store
      */
     public void set(String key, Object value) {
-        if (!key.contains(".")) {
-            json.put(key, value);
+        if (key.indexOf('.') < 0) {
+            json = json.writable();
+            json.put(key, node(value));
             return;
         }
+        set(DataPath.of(key), value);
+    }
+
+    /**
+     * Store a value at the given path
+     *
+     * @param path The path to store value at
+     * @param value The value to store
+     */
+    public void set(DataPath path, Object value) {
+        value = node(value);
+
+        json = json.writable();
+        DataNode json = this.json;
+        int last = path.size() - 1;
+        for (int i = 0; i < last; i++) {
+            String keyValue = path.get(i);
+            Object inner = json.get(keyValue);
+            DataNode child = inner instanceof DataNode
+                    ? ((DataNode) inner).writable() : new DataNode();
+            if (child != inner) {
+                json.put(keyValue, child);
+            }
+            json = child;
+        }
+        json.put(path.get(last), value);
+    }
 
+    /**
+     * Store data as a shared copy of its tree rather than by reference, and
+     * lists and maps as unmodifiable copies, as copies of the data share
+     * the values stored in it.
+     */
+    private static Object node(Object value) {
         if (value instanceof Data) {
-            value = ((Data) value).json;
+            DataNode node = ((Data) value).json;
+            node.share();
+            return node;
         }
+        return copy(value);
+    }
 
-        String[] keys = key.split("(?<!\\\\)\\.");
-        JSONObject oldJson = this.json;
-        JSONObject json = this.json;
-        for (int i = 0; i < keys.length - 1; i++) {
-            String keyValue = keys[i].replace("\\.", ".");
-            if (!oldJson.containsKey(keyValue)) {
-                json = new JSONObject();
-            } else {
-                json = (JSONObject) oldJson.get(keyValue);
+    private static Object copy(Object value) {
+        if (value instanceof Data) {
+            return new Data((Data) value);
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), copy(entry.getValue()));
             }
-            oldJson.put(keyValue, json);
-            oldJson = json;
+            return Collections.unmodifiableMap(copy);
         }
-        json.put(keys[keys.length - 1].replace("\\.", "."), value);
+        if (value instanceof Iterable) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (Iterable<?>) value) {
+                copy.add(copy(element));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    /**
+     * Write the data as JSON without building it in memory first.
+     *
+     * @param writer The writer to write to, which is not closed.
+     * @throws IOException If the writer fails.
+     */
+    public void write(Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        write(json);
+        json.flush();
+    }
+
+    /**
+     * Write the data to a JSON stream, such as a Gson type adapter.
+     *
+     * @param writer The JSON stream to write to.
+     * @throws IOException If the writer fails.
+     */
+    public void write(JsonWriter writer) throws IOException {
+        json.write(writer);
     }
 
     @Override
     public String toString() {
-        return this.json.toJSONString();
+        StringWriter output = new StringWriter();
+        try {
+            write(output);
+        } catch (IOException e) {
+            /* Writing to a string never fails */
+        }
+        return output.toString();
     }
 }
@@ -0,0 +1,253 @@
+package chalkbox.api.collections;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A JSON object in a {@link Data} tree.
+ *
+ * <p>Members are kept in insertion order in a pair of arrays, rather than
+ * a hash map of entries, and only objects with many members are indexed.
+ *
+ * <p>Nodes are copied on write: copying data only marks its root as
+ * shared, and a shared node is copied, along with the path to it, the
+ * first time it is written to. Copying a node marks its children as
+ * shared, since they are then referenced by both copies.
+ *
+ * <p>Values are strings, numbers, booleans, null, nodes, or lists and maps
+ * of values. Lists and maps cannot be modified, whether read from JSON or
+ * copied when stored by {@link Data}, so they can be shared by copies.
+ */
+final class DataNode {
+    /** Objects with more members than this are indexed by key */
+    private static final int INDEX_THRESHOLD = 8;
+
+    private String[] keys;
+    private Object[] values;
+    private int size;
+    private Map<String, Integer> index;
+    private volatile boolean shared = false;
+
+    DataNode() {
+        this(4);
+    }
+
+    private DataNode(int capacity) {
+        keys = new String[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Mark the node as referenced by more than one tree.
+     */
+    void share() {
+        shared = true;
+    }
+
+    /**
+     * @return This node if it may be written to, otherwise a copy of it.
+     */
+    DataNode writable() {
+        if (!shared) {
+            return this;
+        }
+        DataNode copy = new DataNode(Math.max(size, 4));
+        System.arraycopy(keys, 0, copy.keys, 0, size);
+        System.arraycopy(values, 0, copy.values, 0, size);
+        copy.size = size;
+        for (int i = 0; i < size; i++) {
+            if (values[i] instanceof DataNode) {
+                ((DataNode) values[i]).share();
+            }
+        }
+        return copy;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    Object get(String key) {
+        int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    /**
+     * Store a value, the node must be writable.
+     */
+    void put(String key, Object value) {
+        int i = indexOf(key);
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        if (index != null) {
+            index.put(key, size);
+        }
+        size++;
+    }
+
+    /**
+     * @return A copy of the keys in insertion order.
+     */
+    Set<String> keySet() {
+        return new LinkedHashSet<>(Arrays.asList(keys).subList(0, size));
+    }
+
+    private int indexOf(String key) {
+        if (size > INDEX_THRESHOLD) {
+            if (index == null) {
+                index = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    index.put(keys[i], i);
+                }
+            }
+            Integer i = index.get(key);
+            return i == null ? -1 : i;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Write the node as JSON.
+     */
+    void write(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        for (int i = 0; i < size; i++) {
+            writer.name(keys[i]);
+            writeValue(writer, values[i]);
+        }
+        writer.endObject();
+    }
+
+    private static void writeValue(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof DataNode) {
+            ((DataNode) value).write(writer);
+        } else if (value instanceof Data) {
+            ((Data) value).write(writer);
+        } else if (value instanceof String) {
+            writer.value((String) value);
+        } else if (value instanceof Boolean) {
+            writer.value((Boolean) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                writer.nullValue();
+            } else {
+                writer.value((Number) value);
+            }
+        } else if (value instanceof Number) {
+            writer.value((Number) value);
+        } else if (value instanceof Map) {
+            writer.beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writer.name(String.valueOf(entry.getKey()));
+                writeValue(writer, entry.getValue());
+            }
+            writer.endObject();
+        } else if (value instanceof Iterable) {
+            writer.beginArray();
+            for (Object element : (Iterable<?>) value) {
+                writeValue(writer, element);
+            }
+            writer.endArray();
+        } else {
+            writer.value(value.toString());
+        }
+    }
+
+    /**
+     * Read a JSON object, the reader must be positioned at its start.
+     */
+    static DataNode read(JsonReader reader) throws IOException {
+        DataNode node = new DataNode();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            node.put(reader.nextName(), readValue(reader));
+        }
+        reader.endObject();
+        return node;
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+                return read(reader);
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+                reader.endArray();
+                return Collections.unmodifiableList(list);
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return number(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                throw new IOException("Unexpected " + token + " in JSON");
+        }
+    }
+
+    /**
+     * Numbers are read as longs where possible, otherwise as doubles.
+     */
+    private static Number number(String number) {
+        if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+            try {
+                return Long.valueOf(number);
+            } catch (NumberFormatException e) {
+                /* Too large for a long */
+            }
+        }
+        return Double.valueOf(number);
+    }
+
+    @Override
+    public String toString() {
+        StringWriter output = new StringWriter();
+        try {
+            write(new JsonWriter(output));
+        } catch (IOException e) {
+            /* Writing to a string never fails */
+        }
+        return output.toString();
+    }
+}
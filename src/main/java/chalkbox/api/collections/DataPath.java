@@ -0,0 +1,142 @@
+package chalkbox.api.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A key into a {@link Data} collection, parsed once into its segments.
+ *
+ * <p>Keys are written as dotted strings, e.g. "compilation.compiles",
+ * where a dot preceded by a backslash is part of a segment rather than a
+ * separator, e.g. "conformance.chalkbox\\.Main.differs". Parsing a key
+ * splits it on unescaped dots and unescapes each segment.
+ *
+ * <p>Paths are interned: {@link #of(String)} parses each key once and
+ * returns the same path for every later lookup of that key, and
+ * {@link #resolve(String)} returns the same child path for every lookup of
+ * a segment. Looking up a path that has already been parsed allocates
+ * nothing, so data can be read and written in loops without re-parsing
+ * its keys.
+ */
+public final class DataPath {
+    /** Maximum paths or children of a path kept, so unbounded key sets cannot leak */
+    private static final int CACHE_LIMIT = 4096;
+    private static final Map<String, DataPath> PATHS = new ConcurrentHashMap<>();
+
+    /** The empty path, whose children are the top level keys of data */
+    public static final DataPath ROOT = new DataPath("", new String[0]);
+
+    private final String key;
+    private final String[] segments;
+    private final Map<String, DataPath> children = new ConcurrentHashMap<>();
+
+    private DataPath(String key, String[] segments) {
+        this.key = key;
+        this.segments = segments;
+    }
+
+    /**
+     * Get the path of a dotted key.
+     *
+     * @param key A key of dot separated segments with literal dots escaped.
+     * @return The path of the key, parsed the first time it is requested.
+     */
+    public static DataPath of(String key) {
+        DataPath path = PATHS.get(key);
+        if (path != null) {
+            return path;
+        }
+        path = new DataPath(key, parse(key));
+        if (PATHS.size() < CACHE_LIMIT) {
+            PATHS.putIfAbsent(key, path);
+        }
+        return path;
+    }
+
+    /**
+     * Get the path of a child of this path.
+     *
+     * @param segment Name of the child, dots in the name are not separators
+     *                and must not be escaped.
+     * @return The path of the child, created the first time it is requested.
+     */
+    public DataPath resolve(String segment) {
+        DataPath child = children.get(segment);
+        if (child != null) {
+            return child;
+        }
+
+        String[] childSegments = new String[segments.length + 1];
+        System.arraycopy(segments, 0, childSegments, 0, segments.length);
+        childSegments[segments.length] = segment;
+        String escaped = segment.replace(".", "\\.");
+        child = new DataPath(key.isEmpty() ? escaped : key + "." + escaped, childSegments);
+        if (children.size() < CACHE_LIMIT) {
+            children.putIfAbsent(segment, child);
+        }
+        return child;
+    }
+
+    /**
+     * @return The amount of segments in the path.
+     */
+    public int size() {
+        return segments.length;
+    }
+
+    /**
+     * @return The unescaped segment at the index.
+     */
+    public String get(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Split a key on dots not preceded by a backslash and unescape each
+     * segment. Trailing empty segments are dropped, as {@link String#split(String)}
+     * does.
+     */
+    private static String[] parse(String key) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '.' && (i == 0 || key.charAt(i - 1) != '\\')) {
+                segments.add(segment.toString());
+                segment.setLength(0);
+            } else if (c == '\\' && i + 1 < key.length() && key.charAt(i + 1) == '.') {
+                /* Escaped dot, the dot itself is appended next */
+                continue;
+            } else {
+                segment.append(c);
+            }
+        }
+        segments.add(segment.toString());
+
+        int size = segments.size();
+        while (size > 1 && segments.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return segments.subList(0, size).toArray(new String[0]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DataPath && key.equals(((DataPath) o).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    /**
+     * @return The dotted key of the path, with literal dots escaped.
+     */
+    @Override
+    public String toString() {
+        return key;
+    }
+}
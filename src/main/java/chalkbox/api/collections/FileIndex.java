@@ -0,0 +1,211 @@
+package chalkbox.api.collections;
+
+import chalkbox.api.files.FileLoader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The files of a {@link Bundle}, indexed by path and by extension.
+ *
+ * <p>Paths are relative to the bundle folder and separated by slashes, as
+ * loaded by {@link FileLoader}, and hidden files are not indexed.
+ *
+ * <p>Files the bundle writes itself are added to and removed from the
+ * index as they are written. Paths written by anything else, such as a
+ * compiler, are marked dirty instead. Dirty paths are scanned the next time
+ * the index is read, and only those paths are scanned rather than the
+ * whole bundle.
+ */
+final class FileIndex {
+    private final File folder;
+    /* Every file in insertion order */
+    private final Set<String> files = new LinkedHashSet<>();
+    /* Files by the extension of their name, including the dot */
+    private final Map<String, Set<String>> extensions = new HashMap<>();
+    /* Paths to scan before the next read, the empty path is the whole bundle */
+    private final Set<String> dirty = new HashSet<>();
+
+    FileIndex(File folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Mark a file or directory to be scanned before the index is next read.
+     *
+     * @param uri The path relative to the bundle, or the empty path for the
+     *            whole bundle.
+     */
+    synchronized void invalidate(String uri) {
+        uri = normalise(uri);
+        if (dirty.contains("")) {
+            return;
+        }
+        if (uri.isEmpty()) {
+            dirty.clear();
+        }
+        dirty.add(uri);
+    }
+
+    /**
+     * Add a file written by the bundle.
+     */
+    synchronized void add(String uri) {
+        uri = normalise(uri);
+        if (isHidden(uri) || !files.add(uri)) {
+            return;
+        }
+        String extension = extension(uri);
+        if (extension != null) {
+            extensions.computeIfAbsent(extension, e -> new LinkedHashSet<>()).add(uri);
+        }
+    }
+
+    /**
+     * Remove a file, or a directory and every file within it.
+     */
+    synchronized void remove(String uri) {
+        removeTree(normalise(uri));
+    }
+
+    synchronized boolean contains(String uri) {
+        scan();
+        return files.contains(uri);
+    }
+
+    /**
+     * @return Every file in the bundle.
+     */
+    synchronized List<String> list() {
+        scan();
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Files with names ending in a suffix. Suffixes that are a single
+     * extension, such as ".java", are looked up rather than searched for.
+     *
+     * @param suffix The suffix to match, the empty suffix matches every file.
+     * @return Every file in the bundle ending with the suffix.
+     */
+    synchronized List<String> list(String suffix) {
+        scan();
+        if (suffix.isEmpty()) {
+            return new ArrayList<>(files);
+        }
+        if (suffix.lastIndexOf('.') == 0 && suffix.indexOf('/') < 0) {
+            Set<String> bucket = extensions.get(suffix);
+            return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+        }
+
+        List<String> matches = new ArrayList<>();
+        for (String file : files) {
+            if (file.endsWith(suffix)) {
+                matches.add(file);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Rescan the dirty paths, skipping those within another dirty directory.
+     */
+    private void scan() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        /* Scanning the whole bundle may be worth doing in parallel */
+        FileLoader loader = new FileLoader(folder.getPath())
+                .setParallel(dirty.contains(""));
+        for (String uri : dirty) {
+            if (hasDirtyParent(uri)) {
+                continue;
+            }
+            removeTree(uri);
+
+            File file = uri.isEmpty() ? folder : new File(folder, uri);
+            if (file.isDirectory()) {
+                if (isHidden(uri)) {
+                    continue;
+                }
+                for (String found : loader.loadFiles(file)) {
+                    add(found);
+                }
+            } else if (file.isFile()) {
+                add(uri);
+            }
+        }
+        dirty.clear();
+    }
+
+    private boolean hasDirtyParent(String uri) {
+        int separator = uri.lastIndexOf('/');
+        while (separator >= 0) {
+            uri = uri.substring(0, separator);
+            if (dirty.contains(uri)) {
+                return true;
+            }
+            separator = uri.lastIndexOf('/');
+        }
+        return !uri.isEmpty() && dirty.contains("");
+    }
+
+    private void removeTree(String uri) {
+        if (uri.isEmpty()) {
+            files.clear();
+            extensions.clear();
+            return;
+        }
+
+        String directory = uri + "/";
+        Iterator<String> iterator = files.iterator();
+        while (iterator.hasNext()) {
+            String file = iterator.next();
+            if (file.equals(uri) || file.startsWith(directory)) {
+                iterator.remove();
+                String extension = extension(file);
+                if (extension != null) {
+                    extensions.get(extension).remove(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The extension of the file name including the dot, or null if
+     *         the name has no extension.
+     */
+    private static String extension(String uri) {
+        int dot = uri.lastIndexOf('.');
+        if (dot < 0 || dot < uri.lastIndexOf('/')) {
+            return null;
+        }
+        return uri.substring(dot);
+    }
+
+    private static boolean isHidden(String uri) {
+        return uri.startsWith(".") || uri.contains("/.");
+    }
+
+    /** Use slashes as separators, without leading or trailing slashes */
+    private static String normalise(String uri) {
+        uri = uri.replace(File.separatorChar, '/');
+        int start = 0;
+        int end = uri.length();
+        while (start < end && uri.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && uri.charAt(end - 1) == '/') {
+            end--;
+        }
+        return uri.substring(start, end);
+    }
+}
@@ -0,0 +1,72 @@
+package chalkbox.api.collections;
+
+import chalkbox.api.results.Result;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The typed results recorded in a data collection, see {@link Result}.
+ *
+ * <p>A typed result is only returned while the JSON it wrote is unchanged.
+ * Once anything writes to the result's path, or to a path within or
+ * containing it, the result is read from the data again instead.
+ */
+public class TypedResults {
+    private final Map<DataPath, Recorded> results = new HashMap<>();
+
+    /**
+     * Record a typed result, writing it into the data at its path.
+     *
+     * @param data The data the result is written to.
+     * @param path The path of the result in the data.
+     * @param result The result to record.
+     */
+    public synchronized void set(Data data, DataPath path, Result result) {
+        result.write(data, path);
+        results.put(path, new Recorded(result, data.revision(path)));
+    }
+
+    /**
+     * Get a typed result recorded at a path. Results only present in the
+     * data, e.g. loaded from a previous run, or changed since they were
+     * recorded are read from the data.
+     *
+     * @param data The data the result was written to.
+     * @param path The path of the result in the data.
+     * @param type The type of the result.
+     * @param read Reads the result from its JSON object, e.g. TestResult::of.
+     * @return The result or null if there is no result at the path.
+     */
+    public synchronized <T extends Result> T get(Data data, DataPath path, Class<T> type,
+                                                 Function<Data, T> read) {
+        Recorded recorded = results.get(path);
+        if (recorded != null && recorded.revision == data.revision(path)
+                && type.isInstance(recorded.result)) {
+            return type.cast(recorded.result);
+        }
+        Object json = data.get(path);
+        return json instanceof Data ? read.apply((Data) json) : null;
+    }
+
+    /**
+     * Forget every recorded result, e.g. once the data is replaced.
+     */
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    /**
+     * A result and the JSON value it wrote.
+     */
+    private static class Recorded {
+        private final Result result;
+        private final Object revision;
+
+        Recorded(Result result, Object revision) {
+            this.result = result;
+            this.revision = revision;
+        }
+    }
+}
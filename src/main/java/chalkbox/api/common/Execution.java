@@ -1,20 +1,47 @@
 package chalkbox.api.common;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.StringWriter;
-import java.io.Writer;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for executing processes
+ *
+ * <p>The output and error streams of each process are read in bulk by a
+ * shared pool of threads. At most a limited amount of each stream is kept,
+ * see {@link #setOutputLimit(int)}, so a process printing in an infinite
+ * loop cannot exhaust memory. Processes which time out are destroyed along
+ * with any processes they started.
  */
 public class Execution {
+    /** Default maximum amount of bytes captured from each stream of a process */
+    private static final int OUTPUT_LIMIT = 1024 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+    /** Name used to govern processes started without naming their tool */
+    private static final String DEFAULT_TOOL = "process";
+
+    /** Threads reading process output, shared by every process */
+    private static final ExecutorService READERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "process-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile int outputLimit = OUTPUT_LIMIT;
+
     /**
      * Execute a process in a working directory
      *
@@ -29,7 +56,7 @@ public class Execution {
         ProcessBuilder builder = new ProcessBuilder(args);
         builder.directory(working);
 
-        return run(builder, timeout);
+        return run(DEFAULT_TOOL, builder, timeout);
     }
 
     /**
@@ -47,7 +74,7 @@ public class Execution {
         ProcessBuilder builder = new ProcessBuilder(args);
         builder.environment().putAll(environment);
 
-        return run(builder, timeout);
+        return run(DEFAULT_TOOL, builder, timeout);
     }
 
     /**
@@ -67,71 +94,197 @@ public class Execution {
         builder.directory(working);
         builder.environment().putAll(environment);
 
-        return run(builder, timeout);
+        return run(DEFAULT_TOOL, builder, timeout);
+    }
+
+    /**
+     * Execute a process of a tool in a working directory
+     *
+     * <p>The process is admitted by the {@link ProcessGovernor} with the
+     * limits of the named tool.
+     *
+     * @param tool name of the tool being executed, e.g. junit
+     * @param working directory to run the process within
+     * @param timeout timeout for the process in miliseconds
+     * @param args the command line arguments to execute the process
+     * @return the executed process
+     * @throws IOException if an issue occurs executing the process
+     */
+    public static ProcessExecution runProcess(String tool, File working, int timeout,
+                                              String... args)
+            throws IOException, TimeoutException {
+        ProcessBuilder builder = new ProcessBuilder(args);
+        builder.directory(working);
+
+        return run(tool, builder, timeout);
+    }
+
+    /**
+     * Execute a process of a tool in a working directory with a set of
+     * environment variables
+     *
+     * <p>The process is admitted by the {@link ProcessGovernor} with the
+     * limits of the named tool.
+     *
+     * @param tool name of the tool being executed, e.g. junit
+     * @param working directory to run the process within
+     * @param environment environment variables
+     * @param timeout timeout for the process in miliseconds
+     * @param args the command line arguments to execute the process
+     * @return the executed process
+     * @throws IOException if an issue occurs executing the process
+     */
+    public static ProcessExecution runProcess(String tool, File working,
+                                              Map<String, String> environment,
+                                              int timeout, String... args)
+            throws IOException, TimeoutException {
+        ProcessBuilder builder = new ProcessBuilder(args);
+        builder.directory(working);
+        builder.environment().putAll(environment);
+
+        return run(tool, builder, timeout);
     }
 
     /*
-     * Helper to execute a process.
+     * Helper to execute a process once admitted by the process governor.
      */
-    private static ProcessExecution run(ProcessBuilder builder, int timeout)
+    private static ProcessExecution run(String tool, ProcessBuilder builder, int timeout)
             throws IOException, TimeoutException {
         Process process;
         ProcessExecution execution = new ProcessExecution();
+        ProcessGovernor.Slot slot = null;
         try {
+            slot = ProcessGovernor.shared().acquire(tool);
             process = builder.start();
-            Writer output = new StringWriter();
-            Writer error = new StringWriter();
-
-            Runnable outputReader = new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        InputStreamReader in = new InputStreamReader(process.getInputStream());
-                        int bite;
-                        while ((bite = in.read()) != -1) {
-                            output.write(bite);
-                        }
-                    } catch (IOException e) {
-                        System.err.println("IO ERROR");
-                    }
-                }
-            };
-            Runnable errorReader = new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        InputStreamReader in = new InputStreamReader(process.getErrorStream());
-                        int bite;
-                        while ((bite = in.read()) != -1) {
-                            error.write(bite);
-                        }
-                    } catch (IOException e) {
-                        System.err.println("IO ERROR");
-                    }
-                }
-            };
-            Thread outputThread = new Thread(outputReader);
-            Thread errorThread = new Thread(errorReader);
-            outputThread.start();
-            errorThread.start();
+            Future<String> output = READERS.submit(
+                    new OutputCapture(process.getInputStream(), outputLimit));
+            Future<String> error = READERS.submit(
+                    new OutputCapture(process.getErrorStream(), outputLimit));
+
             if (!process.waitFor(timeout, TimeUnit.MILLISECONDS)) {
-                process.destroy();
+                destroyTree(process);
+                output.cancel(true);
+                error.cancel(true);
                 throw new TimeoutException();
             }
 
-            outputThread.join(timeout);
-            errorThread.join(timeout);
-
-            execution.setOutput(output.toString());
-            execution.setError(error.toString());
+            execution.setOutput(collect(process, output, timeout));
+            execution.setError(collect(process, error, timeout));
         } catch (InterruptedException e) {
             System.err.println("Program execution interrupted");
             return null;
+        } finally {
+            /* Held until the process has finished or been destroyed */
+            if (slot != null) {
+                slot.close();
+            }
         }
 
         return execution;
     }
 
+    /**
+     * Set the maximum amount of bytes captured from each of the output and
+     * error streams of a process. Any further output is discarded and
+     * replaced with a truncation marker.
+     *
+     * @param limit maximum amount of bytes to capture from each stream
+     */
+    public static void setOutputLimit(int limit) {
+        outputLimit = limit;
+    }
+
+    /**
+     * @return the maximum amount of bytes captured from each stream of a process
+     */
+    public static int getOutputLimit() {
+        return outputLimit;
+    }
+
+    /**
+     * Forcibly destroy a process and every process it started.
+     *
+     * <p>Descendants are found before the process is destroyed, as they
+     * are no longer descendants once their parent has exited.
+     *
+     * @param process the process to destroy
+     */
+    public static void destroyTree(Process process) {
+        List<ProcessHandle> descendants = process.descendants()
+                .collect(Collectors.toList());
+        process.destroyForcibly();
+        descendants.forEach(ProcessHandle::destroyForcibly);
+    }
+
+    /*
+     * Wait for the output of an exited process to be read.
+     *
+     * A process that started background processes may exit while its
+     * streams are still held open, so they are closed after the timeout.
+     */
+    private static String collect(Process process, Future<String> capture, int timeout)
+            throws InterruptedException {
+        try {
+            return capture.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            destroyTree(process);
+            closeQuietly(process.getInputStream());
+            closeQuietly(process.getErrorStream());
+            try {
+                return capture.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException ex) {
+                return "";
+            }
+        } catch (ExecutionException e) {
+            System.err.println("IO ERROR");
+            return "";
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            /* The stream is being discarded */
+        }
+    }
+
+    /**
+     * Reads a stream of process output in bulk, keeping at most a limited
+     * amount of bytes. The rest of the stream is still consumed so that the
+     * process never blocks on a full pipe.
+     */
+    private static class OutputCapture implements Callable<String> {
+        private final InputStream stream;
+        private final int limit;
+
+        OutputCapture(InputStream stream, int limit) {
+            this.stream = stream;
+            this.limit = limit;
+        }
+
+        @Override
+        public String call() throws IOException {
+            ByteArrayOutputStream captured = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long discarded = 0;
+
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                int kept = Math.max(0, Math.min(read, limit - captured.size()));
+                captured.write(buffer, 0, kept);
+                discarded += read - kept;
+            }
+
+            String output = captured.toString();
+            if (discarded > 0) {
+                output += System.lineSeparator() + "... output truncated, "
+                        + discarded + " bytes omitted";
+            }
+            return output;
+        }
+    }
+
     /**
      * Execute a process in the current working directory
      *
@@ -0,0 +1,169 @@
+package chalkbox.api.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits the processes executed at once by every processor.
+ *
+ * <p>Processors each run with their own threads and may start a process
+ * from every thread, so without a shared limit the amount of concurrent
+ * processes grows with the amount of processors. Before a process is
+ * started it must be admitted by the governor, which requires that:
+ * <ul>
+ *     <li>fewer than the global limit of processes are running,</li>
+ *     <li>fewer than the limit for the tool being executed are running, and</li>
+ *     <li>the memory expected to be used by the tool fits within the memory
+ *     limit alongside the processes already running.</li>
+ * </ul>
+ * A process is always admitted when nothing else is running, so a tool
+ * expected to use more than the memory limit can still be executed.
+ *
+ * <p>The limits are set from the box config:
+ * <pre>
+ * processes=8              maximum processes running at once
+ * memoryLimit=4096         megabytes of memory processes may use at once
+ * processes.junit=4        maximum junit processes running at once
+ * memory.junit=512         megabytes a junit process is expected to use
+ * </pre>
+ */
+public class ProcessGovernor {
+    /** Memory expected to be used by a tool without an estimate in megabytes */
+    private static final long DEFAULT_MEMORY = 256;
+
+    private static ProcessGovernor shared;
+
+    private int processes = Runtime.getRuntime().availableProcessors();
+    private long memoryLimit = defaultMemoryLimit();
+    private final Map<String, Integer> toolProcesses = new HashMap<>();
+    private final Map<String, Long> toolMemory = new HashMap<>();
+
+    private int running = 0;
+    private long reserved = 0;
+    private final Map<String, Integer> toolRunning = new HashMap<>();
+
+    /**
+     * Create a governor with the default limits.
+     */
+    public ProcessGovernor() {
+        toolMemory.put("python", 128L);
+        toolMemory.put("pytest", 128L);
+        toolMemory.put("splat", 128L);
+    }
+
+    /**
+     * @return The governor shared by all processes started with {@link Execution}.
+     */
+    public static synchronized ProcessGovernor shared() {
+        if (shared == null) {
+            shared = new ProcessGovernor();
+        }
+        return shared;
+    }
+
+    /**
+     * Set the limits of this governor from configuration values, see
+     * {@link ProcessGovernor} for the keys used.
+     *
+     * @param config Configuration keys and values.
+     * @return true iff every limit in the configuration is valid.
+     */
+    public synchronized boolean configure(Map<String, String> config) {
+        try {
+            for (Map.Entry<String, String> entry : config.entrySet()) {
+                String key = entry.getKey();
+                String value = entry.getValue().trim();
+
+                if (key.equals("processes")) {
+                    processes = Integer.parseInt(value);
+                } else if (key.equals("memoryLimit")) {
+                    memoryLimit = Long.parseLong(value);
+                } else if (key.startsWith("processes.")) {
+                    toolProcesses.put(key.substring("processes.".length()),
+                            Integer.parseInt(value));
+                } else if (key.startsWith("memory.")) {
+                    toolMemory.put(key.substring("memory.".length()),
+                            Long.parseLong(value));
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Process limits must be numbers: " + e.getMessage());
+            return false;
+        }
+
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Wait until a process of a tool is admitted.
+     *
+     * @param tool Name of the tool to be executed.
+     * @return A slot which must be closed once the process has finished.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public synchronized Slot acquire(String tool) throws InterruptedException {
+        long memory = toolMemory.getOrDefault(tool, DEFAULT_MEMORY);
+        while (!admits(tool, memory)) {
+            wait();
+        }
+
+        running++;
+        reserved += memory;
+        toolRunning.merge(tool, 1, Integer::sum);
+        return new Slot(tool, memory);
+    }
+
+    private boolean admits(String tool, long memory) {
+        if (running == 0) {
+            return true;
+        }
+        return running < processes
+                && toolRunning.getOrDefault(tool, 0)
+                    < toolProcesses.getOrDefault(tool, processes)
+                && reserved + memory <= memoryLimit;
+    }
+
+    private synchronized void release(Slot slot) {
+        running--;
+        reserved -= slot.memory;
+        toolRunning.merge(slot.tool, -1, Integer::sum);
+        notifyAll();
+    }
+
+    /**
+     * @return Three quarters of the physical memory in megabytes, if known.
+     */
+    private static long defaultMemoryLimit() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            long total = ((com.sun.management.OperatingSystemMXBean) bean).getTotalMemorySize();
+            return total / (1024 * 1024) * 3 / 4;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Permission to run a process, held until the process has finished.
+     */
+    public class Slot implements AutoCloseable {
+        private final String tool;
+        private final long memory;
+        private boolean closed = false;
+
+        private Slot(String tool, long memory) {
+            this.tool = tool;
+            this.memory = memory;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(this);
+            }
+        }
+    }
+}
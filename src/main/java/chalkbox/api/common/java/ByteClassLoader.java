@@ -0,0 +1,71 @@
+package chalkbox.api.common.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A class loader which defines classes from byte code held in memory.
+ *
+ * <p>Byte code is only read from disk once and can be defined by any number
+ * of loaders, e.g. to load the same tests against several different
+ * implementations of the classes they test. Any class not held in memory is
+ * loaded by the parent.
+ */
+public class ByteClassLoader extends ClassLoader {
+    private final List<Map<String, byte[]>> classes;
+
+    /**
+     * Create a loader for classes held in memory.
+     *
+     * @param parent The loader of any classes not held in memory.
+     * @param classes Maps of binary class names to byte code, searched in order.
+     */
+    public ByteClassLoader(ClassLoader parent, List<Map<String, byte[]>> classes) {
+        super(parent);
+        this.classes = List.copyOf(classes);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        for (Map<String, byte[]> map : classes) {
+            byte[] code = map.get(name);
+            if (code != null) {
+                return defineClass(name, code, 0, code.length);
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    /**
+     * Read the byte code of every class file within a directory.
+     *
+     * @param directory Directory of compiled classes, e.g. a javac output directory.
+     * @return Map of binary class names to byte code.
+     * @throws IOException If the directory or a class file cannot be read.
+     */
+    public static Map<String, byte[]> readClasses(File directory) throws IOException {
+        Map<String, byte[]> classes = new HashMap<>();
+        Path root = directory.toPath();
+
+        List<Path> classFiles;
+        try (Stream<Path> paths = Files.walk(root)) {
+            classFiles = paths.filter(path -> path.toString().endsWith(".class"))
+                    .collect(Collectors.toList());
+        }
+
+        for (Path classFile : classFiles) {
+            String name = root.relativize(classFile).toString();
+            name = name.substring(0, name.length() - ".class".length())
+                    .replace(File.separatorChar, '.');
+            classes.put(name, Files.readAllBytes(classFile));
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,86 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+
+/**
+ * A snapshot of the classes loaded by the JVM and the metaspace they use.
+ *
+ * <p>Processors which load the classes of each submission, such as
+ * conformance checking, define thousands of classes over a run. Each
+ * submission's classes can only be unloaded once nothing references its
+ * class loader, so recording a snapshot after every submission shows
+ * whether loaders are being released: the loaded class count and
+ * metaspace should stay flat rather than grow with the number of
+ * submissions.
+ */
+public class ClassLoadingMetrics {
+    private static final String METASPACE = "Metaspace";
+
+    private final int loaded;
+    private final long unloaded;
+    private final long metaspace;
+
+    private ClassLoadingMetrics(int loaded, long unloaded, long metaspace) {
+        this.loaded = loaded;
+        this.unloaded = unloaded;
+        this.metaspace = metaspace;
+    }
+
+    /**
+     * @return The classes loaded and metaspace used at this moment.
+     */
+    public static ClassLoadingMetrics snapshot() {
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        long metaspace = -1;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().equals(METASPACE)) {
+                metaspace = pool.getUsage().getUsed();
+            }
+        }
+        return new ClassLoadingMetrics(classes.getLoadedClassCount(),
+                classes.getUnloadedClassCount(), metaspace);
+    }
+
+    /**
+     * @return The amount of classes currently loaded.
+     */
+    public int getLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return The amount of classes unloaded since the JVM started.
+     */
+    public long getUnloaded() {
+        return unloaded;
+    }
+
+    /**
+     * @return Bytes of metaspace in use, or -1 if the JVM has no metaspace.
+     */
+    public long getMetaspace() {
+        return metaspace;
+    }
+
+    /**
+     * Record the snapshot in results under the given path, e.g.
+     * path.loaded, path.unloaded and path.metaspace.
+     */
+    public void set(Data data, DataPath path) {
+        data.set(path.resolve("loaded"), loaded);
+        data.set(path.resolve("unloaded"), unloaded);
+        data.set(path.resolve("metaspace"), metaspace);
+    }
+
+    @Override
+    public String toString() {
+        return loaded + " classes loaded, " + unloaded + " unloaded, "
+                + (metaspace < 0 ? "unknown" : metaspace / 1024 + "KB")
+                + " metaspace";
+    }
+}
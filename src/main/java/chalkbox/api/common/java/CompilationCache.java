@@ -0,0 +1,321 @@
+package chalkbox.api.common.java;
+
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An on-disk, content-addressed cache of compilation results.
+ *
+ * <p>Compilations are keyed by a SHA-256 hash of the name and contents of
+ * each source file, the class path and the contents of each of its entries
+ * and the java version. Identical sources compiled against the same
+ * class path, such as resubmissions or copies of a template, are only
+ * compiled once.
+ *
+ * <p>Each cache entry is a directory named by its key, containing:
+ * <pre>
+ * classes/    the compiled class files
+ * output      the compiler diagnostics
+ * success     true iff the compilation succeeded
+ * </pre>
+ *
+ * <p>Class path entries are fingerprinted once per cache instance, so they
+ * are assumed not to change while the cache is in use.
+ *
+ * <p>A cache created without a directory compiles everything directly with
+ * {@link Compiler}.
+ */
+public class CompilationCache {
+    private static final String CLASSES = "classes";
+    private static final String OUTPUT = "output";
+    private static final String SUCCESS = "success";
+
+    private final File directory;
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * Create a compilation cache stored within a directory.
+     *
+     * @param directory Directory to store cache entries within, or null to
+     *                  disable caching.
+     */
+    public CompilationCache(File directory) {
+        this.directory = directory;
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            System.err.println("Unable to create compilation cache: " + directory);
+        }
+    }
+
+    /**
+     * Compile java source files into java byte code files, reusing the
+     * result of an identical previous compilation if cached.
+     *
+     * @see Compiler#compile(Iterable, String, String, StringWriter)
+     *
+     * @param files The source java files to compile.
+     * @param classPath The classpath to compile with.
+     * @param outputPath The path of the folder to output the java byte code files.
+     * @param output A string writer for the output from compiling the source files.
+     *
+     * @return true iff the files were compiled successfully.
+     */
+    public boolean compile(Iterable<? extends JavaFileObject> files,
+                           String classPath, String outputPath,
+                           StringWriter output) {
+        return compile(files, null, classPath, outputPath, output);
+    }
+
+    /**
+     * Compile java source files into java byte code files, reusing the
+     * result of an identical previous compilation if cached.
+     *
+     * <p>The directory the source files are in is on the class path while
+     * compiling, but is not part of the cache key, as the source files are
+     * already hashed and the directory differs for every submission.
+     *
+     * @see Compiler#compile(Iterable, String, String, StringWriter)
+     *
+     * @param files The source java files to compile.
+     * @param sourcePath The directory containing the source files, or null.
+     * @param classPath The classpath to compile with.
+     * @param outputPath The path of the folder to output the java byte code files.
+     * @param output A string writer for the output from compiling the source files.
+     *
+     * @return true iff the files were compiled successfully.
+     */
+    public boolean compile(Iterable<? extends JavaFileObject> files, String sourcePath,
+                           String classPath, String outputPath, StringWriter output) {
+        String key = key(files, classPath);
+        if (sourcePath != null) {
+            classPath = sourcePath + File.pathSeparator + classPath;
+        }
+        if (key == null) {
+            return Compiler.compile(files, classPath, outputPath, output);
+        }
+
+        Path entry = directory.toPath().resolve(key);
+        try {
+            if (!Files.isDirectory(entry)) {
+                Map<String, byte[]> classes = new HashMap<>();
+                StringWriter diagnostics = new StringWriter();
+                boolean success = Compiler.compile(files, classPath, classes, diagnostics);
+                store(entry, classes, diagnostics.toString(), success);
+            }
+
+            Path target = new File(outputPath).toPath();
+            Files.createDirectories(target);
+            Path cached = entry.resolve(CLASSES);
+            for (Path classFile : listFiles(cached)) {
+                Path destination = target.resolve(cached.relativize(classFile).toString());
+                Files.createDirectories(destination.getParent());
+                Files.copy(classFile, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return load(entry, output);
+        } catch (IOException e) {
+            return Compiler.compile(files, classPath, outputPath, output);
+        }
+    }
+
+    /**
+     * Compile java source files into java byte code kept in memory, reusing
+     * the result of an identical previous compilation if cached.
+     *
+     * @see Compiler#compile(Iterable, String, Map, StringWriter)
+     *
+     * @param files The source java files to compile.
+     * @param classPath The classpath to compile with.
+     * @param classes A map to store the compiled byte code in.
+     * @param output A string writer for the output from compiling the source files.
+     *
+     * @return true iff the files were compiled successfully.
+     */
+    public boolean compile(Iterable<? extends JavaFileObject> files,
+                           String classPath, Map<String, byte[]> classes,
+                           StringWriter output) {
+        String key = key(files, classPath);
+        if (key == null) {
+            return Compiler.compile(files, classPath, classes, output);
+        }
+
+        Path entry = directory.toPath().resolve(key);
+        try {
+            if (!Files.isDirectory(entry)) {
+                Map<String, byte[]> compiled = new HashMap<>();
+                StringWriter diagnostics = new StringWriter();
+                boolean success = Compiler.compile(files, classPath, compiled, diagnostics);
+                store(entry, compiled, diagnostics.toString(), success);
+            }
+
+            Path cached = entry.resolve(CLASSES);
+            for (Path classFile : listFiles(cached)) {
+                String name = cached.relativize(classFile).toString()
+                        .replace(File.separator, ".");
+                name = name.substring(0, name.length() - ".class".length());
+                classes.put(name, Files.readAllBytes(classFile));
+            }
+            return load(entry, output);
+        } catch (IOException e) {
+            return Compiler.compile(files, classPath, classes, output);
+        }
+    }
+
+    /**
+     * Write the output of a cache entry and return whether it succeeded.
+     */
+    private boolean load(Path entry, StringWriter output) throws IOException {
+        output.write(new String(Files.readAllBytes(entry.resolve(OUTPUT)),
+                StandardCharsets.UTF_8));
+        return Boolean.parseBoolean(new String(Files.readAllBytes(entry.resolve(SUCCESS)),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Store the result of a compilation as a cache entry.
+     *
+     * <p>The entry is written to a staging directory and then moved into
+     * place, so concurrent compilations never observe partial entries.
+     */
+    private void store(Path entry, Map<String, byte[]> classes, String output,
+                       boolean success) throws IOException {
+        Path staging = Files.createTempDirectory(directory.toPath(), "staging");
+        for (Map.Entry<String, byte[]> compiled : classes.entrySet()) {
+            Path classFile = staging.resolve(CLASSES).resolve(
+                    compiled.getKey().replace(".", File.separator) + ".class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, compiled.getValue());
+        }
+        Files.createDirectories(staging.resolve(CLASSES));
+        Files.write(staging.resolve(OUTPUT), output.getBytes(StandardCharsets.UTF_8));
+        Files.write(staging.resolve(SUCCESS),
+                Boolean.toString(success).getBytes(StandardCharsets.UTF_8));
+
+        try {
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            /* Another thread stored the same entry first */
+            delete(staging);
+            if (!Files.isDirectory(entry)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Compute the cache key of a compilation.
+     *
+     * @return The key or null if caching is disabled or the key cannot be computed.
+     */
+    private String key(Iterable<? extends JavaFileObject> files, String classPath) {
+        if (directory == null) {
+            return null;
+        }
+
+        MessageDigest digest = digest();
+        if (digest == null) {
+            return null;
+        }
+
+        try {
+            List<JavaFileObject> sources = new ArrayList<>();
+            files.forEach(sources::add);
+            sources.sort(Comparator.comparing(JavaFileObject::getName));
+            for (JavaFileObject source : sources) {
+                update(digest, source.getName());
+                update(digest, source.getCharContent(true).toString());
+            }
+            for (String entry : classPath.split(File.pathSeparator)) {
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                update(digest, entry);
+                update(digest, fingerprint(entry));
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        update(digest, System.getProperty("java.version"));
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    /**
+     * Fingerprint the contents of a class path entry, a directory or an archive.
+     */
+    private String fingerprint(String classPathEntry) throws IOException {
+        String known = fingerprints.get(classPathEntry);
+        if (known != null) {
+            return known;
+        }
+
+        MessageDigest digest = digest();
+        if (digest == null) {
+            throw new IOException("SHA-256 unavailable");
+        }
+
+        Path path = new File(classPathEntry).toPath();
+        if (Files.isDirectory(path)) {
+            for (Path file : listFiles(path)) {
+                update(digest, path.relativize(file).toString());
+                digest.update(Files.readAllBytes(file));
+            }
+        } else if (Files.isRegularFile(path)) {
+            digest.update(Files.readAllBytes(path));
+        }
+
+        String fingerprint = Base64.getEncoder().encodeToString(digest.digest());
+        fingerprints.put(classPathEntry, fingerprint);
+        return fingerprint;
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException algo) {
+            return null; // will surely never occur
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    /**
+     * @return All regular files within a directory, sorted by path.
+     */
+    private static List<Path> listFiles(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -3,20 +3,50 @@ package chalkbox.api.common.java;
 import chalkbox.api.collections.Bundle;
 import chalkbox.api.files.SourceFile;
 
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
 import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class for compiling Java source code.
+ *
+ * <p>The system compiler and its file manager are reused between
+ * compilations. A file manager is kept for each thread, as file managers are
+ * not thread safe, so that class path archives are opened and indexed once
+ * per thread rather than once per compilation.
  */
 public class Compiler {
+    private static final ThreadLocal<StandardJavaFileManager> FILE_MANAGERS =
+            ThreadLocal.withInitial(() -> getCompiler()
+                    .getStandardFileManager(null, null, null));
+
+    private static JavaCompiler compiler;
+
+    /**
+     * @return The system java compiler.
+     */
+    private static synchronized JavaCompiler getCompiler() {
+        if (compiler == null) {
+            compiler = ToolProvider.getSystemJavaCompiler();
+        }
+        return compiler;
+    }
 
     /**
      * Compile java source files into java byte code files.
@@ -51,6 +81,148 @@ public class Compiler {
         return compile(files, output, options);
     }
 
+    /**
+     * Compile java source files into java byte code kept in memory.
+     *
+     * <p>The byte code of each compiled class is stored in classes with the
+     * binary name of the class as the key, e.g. package1.ClassOne$Inner.
+     *
+     * @param files The source java files to compile.
+     * @param classPath The classpath to compile with.
+     * @param classes A map to store the compiled byte code in.
+     * @param output A string writer for the output from compiling the source files.
+     *
+     * @return true iff the files were compiled successfully.
+     */
+    public static boolean compile(Iterable<? extends JavaFileObject> files,
+                                  String classPath, Map<String, byte[]> classes,
+                                  StringWriter output) {
+        List<String> options = new ArrayList<>();
+        options.add("-cp");
+        options.add(classPath);
+
+        JavaFileManager fileManager = new MemoryFileManager(resetFileManager(), classes);
+        return compile(files, output, options, fileManager);
+    }
+
+    /**
+     * Compile java source files together into java byte code files, without
+     * letting a file that fails to compile prevent the others from compiling.
+     *
+     * <p>The files are compiled in a single compilation and the diagnostics
+     * are attributed to the file they were reported in. If any files have
+     * errors, the remaining files are compiled again without them, until
+     * a compilation has no errors. A file which only fails once another file
+     * is excluded, e.g. because it uses that file, is reported with the
+     * errors of the compilation it failed in.
+     *
+     * <p>Only the classes of files which compiled are written to the output
+     * path.
+     *
+     * @param files The source java files to compile.
+     * @param classPath The classpath to compile with.
+     * @param outputPath The path of the folder to output the java byte code files.
+     * @param outputs A map to store the output from compiling each source file in.
+     *
+     * @return Map of each source file to true iff it compiled successfully,
+     *         in the order of files.
+     */
+    public static <T extends JavaFileObject> Map<T, Boolean> compileEach(
+            List<T> files, String classPath, String outputPath, Map<T, String> outputs) {
+        Map<T, Boolean> compiles = new LinkedHashMap<>();
+        Map<T, StringBuilder> diagnostics = new HashMap<>();
+        for (T file : files) {
+            compiles.put(file, false);
+            diagnostics.put(file, new StringBuilder());
+        }
+
+        List<String> options = new ArrayList<>();
+        options.add("-cp");
+        options.add(classPath);
+
+        List<T> remaining = new ArrayList<>(files);
+        Map<String, byte[]> classes = new HashMap<>();
+        while (!remaining.isEmpty()) {
+            classes.clear();
+            DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+            StringWriter output = new StringWriter();
+            JavaFileManager fileManager = new MemoryFileManager(resetFileManager(), classes);
+            try {
+                getCompiler().getTask(output, fileManager, collector, options,
+                        null, remaining).call();
+            } catch (IllegalStateException e) {
+                break;
+            }
+
+            /* Attribute each diagnostic to the file it was reported in */
+            List<T> failed = new ArrayList<>();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : collector.getDiagnostics()) {
+                JavaFileObject source = diagnostic.getSource();
+                boolean error = diagnostic.getKind() == Diagnostic.Kind.ERROR;
+                if (source == null || !diagnostics.containsKey(source)) {
+                    /* Not caused by any one file, so every file fails */
+                    for (T file : remaining) {
+                        diagnostics.get(file).append(diagnostic).append("\n");
+                    }
+                    if (error) {
+                        failed.addAll(remaining);
+                    }
+                    continue;
+                }
+
+                diagnostics.get(source).append(diagnostic).append("\n");
+                if (error && remaining.contains(source)) {
+                    failed.add(remaining.get(remaining.indexOf(source)));
+                }
+            }
+
+            if (failed.isEmpty()) {
+                for (T file : remaining) {
+                    compiles.put(file, true);
+                }
+                break;
+            }
+
+            remaining.removeAll(failed);
+            /* Warnings of files that still compile are reported again */
+            for (T file : remaining) {
+                diagnostics.get(file).setLength(0);
+            }
+            classes.clear();
+        }
+
+        for (T file : files) {
+            outputs.put(file, diagnostics.get(file).toString());
+        }
+
+        if (!write(classes, outputPath)) {
+            for (T file : files) {
+                compiles.put(file, false);
+                outputs.put(file, "Unable to write compiled classes - See tutor");
+            }
+        }
+        return compiles;
+    }
+
+    /**
+     * Write byte code held in memory to class files within a folder.
+     *
+     * @return true iff every class file was written.
+     */
+    private static boolean write(Map<String, byte[]> classes, String outputPath) {
+        try {
+            for (Map.Entry<String, byte[]> clazz : classes.entrySet()) {
+                Path path = new File(outputPath,
+                        clazz.getKey().replace('.', File.separatorChar) + ".class").toPath();
+                Files.createDirectories(path.getParent());
+                Files.write(path, clazz.getValue());
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Compile java source files into java byte code files.
      *
@@ -62,11 +234,15 @@ public class Compiler {
      */
     public static boolean compile(Iterable<? extends JavaFileObject> files,
                                   StringWriter output, List<String> options) {
-        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        return compile(files, output, options, resetFileManager());
+    }
 
+    private static boolean compile(Iterable<? extends JavaFileObject> files,
+                                   StringWriter output, List<String> options,
+                                   JavaFileManager fileManager) {
         boolean success;
         try {
-            success = compiler.getTask(output, null,
+            success = getCompiler().getTask(output, fileManager,
                     null, options, null, files).call();
         } catch (IllegalStateException e) {
             output.write("Empty submission");
@@ -76,6 +252,26 @@ public class Compiler {
         return success;
     }
 
+    /**
+     * Get the file manager of the current thread with the locations set by
+     * any previous compilation restored to their defaults.
+     *
+     * @return The file manager of the current thread.
+     */
+    private static StandardJavaFileManager resetFileManager() {
+        StandardJavaFileManager fileManager = FILE_MANAGERS.get();
+        try {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null);
+            fileManager.setLocation(StandardLocation.CLASS_PATH, null);
+            fileManager.setLocation(StandardLocation.SOURCE_PATH, null);
+        } catch (IOException e) {
+            /* A fresh file manager is used if the locations cannot be reset */
+            fileManager = getCompiler().getStandardFileManager(null, null, null);
+            FILE_MANAGERS.set(fileManager);
+        }
+        return fileManager;
+    }
+
     /**
      * Get all of the java source files in a bundle as JavaFileObjects.
      *
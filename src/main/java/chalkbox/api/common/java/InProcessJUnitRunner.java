@@ -0,0 +1,405 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.collections.Data;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Utility class to execute a JUnit test within the chalkbox JVM rather
+ * than forking a new JVM for each test class.
+ *
+ * <p>The test class, the classes under test and JUnit itself are loaded from
+ * the given class path by a new class loader for each execution. The class
+ * loader does not delegate to the chalkbox class path, so submissions cannot
+ * see each other's classes and JUnit does not need to be a dependency of
+ * chalkbox.
+ *
+ * <p>Each test method is executed on its own thread with a timeout. Calls to
+ * {@link System#exit(int)} from a test are intercepted and reported as a
+ * failure of that test rather than terminating chalkbox.
+ *
+ * <p>Unlike a forked JUnit execution, each test method is executed as its own
+ * request, so methods annotated with {@code @BeforeClass} and
+ * {@code @AfterClass} are executed once for every test method rather than
+ * once for the class.
+ *
+ * <p>Tests that time out are interrupted and abandoned, if a test ignores
+ * interrupts it will continue to run in the background. Tests are executed
+ * within the chalkbox working directory and share its standard output.
+ */
+public class InProcessJUnitRunner {
+    /** Maximum time a single test method may execute in milliseconds */
+    private static final int TEST_TIMEOUT = 10000;
+    /** Maximum time all of the tests in a class may execute in milliseconds */
+    private static final int CLASS_TIMEOUT = 60000;
+
+    /** Parent thread group of all threads executing tests */
+    private static final ThreadGroup TESTS = new ThreadGroup("junit-tests");
+
+    /**
+     * Run a JUnit test with the name className and a given classPath.
+     *
+     * @param className Name of the JUnit class to execute.
+     * @param classPath Class path for the JUnit execution.
+     * @param working Directory that relative class path entries are resolved against.
+     *
+     * @return The json output of executing a JUnit test
+     */
+    public static Data runTest(String className, String classPath, File working) {
+        return run(className, classPath, working, TEST_TIMEOUT, CLASS_TIMEOUT).toData();
+    }
+
+    /**
+     * Run a JUnit test with the name className and a given classPath.
+     *
+     * @param className Name of the JUnit class to execute.
+     * @param classPath Class path for the JUnit execution.
+     * @param working Directory that relative class path entries are resolved against.
+     * @param testTimeout Maximum time a single test may execute in milliseconds.
+     * @param classTimeout Maximum time all tests may execute in milliseconds.
+     *
+     * @return The results of executing the JUnit test.
+     */
+    public static JUnitResult run(String className, String classPath, File working,
+                                  int testTimeout, int classTimeout) {
+        JUnitResult result = new JUnitResult();
+        ExitTrap.install();
+
+        URL[] urls;
+        try {
+            urls = toUrls(classPath, working);
+        } catch (MalformedURLException e) {
+            result.setErrors("Invalid class path - see tutor");
+            return result;
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(urls,
+                ClassLoader.getPlatformClassLoader())) {
+            runTests(loader, className, result, testTimeout, classTimeout,
+                    (executed, remaining) -> false);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return result;
+    }
+
+    /**
+     * Run a JUnit test with the name className loaded by the given class
+     * loader, stopping once a condition is met.
+     *
+     * <p>The stop condition is checked after each test method with the
+     * results so far and the amount of test methods remaining. This allows
+     * the loader, and the classes it has already loaded, to be shared
+     * between executions.
+     *
+     * @param loader Class loader to load the test class and JUnit from.
+     * @param className Name of the JUnit class to execute.
+     * @param stop Condition to stop executing the remaining tests.
+     *
+     * @return The results of the tests that were executed.
+     */
+    public static JUnitResult run(ClassLoader loader, String className,
+                                  BiPredicate<JUnitResult, Integer> stop) {
+        JUnitResult result = new JUnitResult();
+        ExitTrap.install();
+
+        runTests(loader, className, result, TEST_TIMEOUT, CLASS_TIMEOUT, stop);
+        return result;
+    }
+
+    /**
+     * Create a class loader for a class path which does not delegate to the
+     * chalkbox class path.
+     *
+     * @param classPath Class path to load classes from.
+     * @param working Directory that relative class path entries are resolved against.
+     * @return A class loader for the class path.
+     * @throws MalformedURLException If an entry of the class path is invalid.
+     */
+    public static URLClassLoader createLoader(String classPath, File working)
+            throws MalformedURLException {
+        return new URLClassLoader(toUrls(classPath, working),
+                ClassLoader.getPlatformClassLoader());
+    }
+
+    /**
+     * Execute each of the tests within a test class.
+     */
+    private static void runTests(ClassLoader loader, String className, JUnitResult result,
+                                 int testTimeout, int classTimeout,
+                                 BiPredicate<JUnitResult, Integer> stop) {
+        JUnitApi junit;
+        try {
+            junit = new JUnitApi(loader);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            result.setErrors("Unable to load JUnit from the class path - see tutor");
+            return;
+        }
+
+        Class<?> testClass;
+        List<?> tests;
+        try {
+            testClass = Class.forName(className, false, loader);
+            tests = junit.children(junit.classRequest(testClass));
+        } catch (ClassNotFoundException | LinkageError e) {
+            result.setErrors("Unable to load test class " + className + ": " + e);
+            return;
+        } catch (ReflectiveOperationException e) {
+            result.setErrors("Unable to load tests from " + className + ": " + e);
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + classTimeout;
+        for (int i = 0; i < tests.size(); i++) {
+            Object test = tests.get(i);
+            long timeout = Math.min(testTimeout, deadline - System.currentTimeMillis());
+            if (timeout <= 0) {
+                result.setErrors("Timed out");
+                result.add(new JUnitResult.TestCase(junit.name(test), false, 0,
+                        "Timed out"));
+                continue;
+            }
+
+            JUnitResult.TestCase outcome = runTest(junit, loader, testClass, test, timeout);
+            if (outcome != null) {
+                result.add(outcome);
+            }
+            if (stop.test(result, tests.size() - i - 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Execute a single test on its own thread.
+     *
+     * <p>A new request is created for each test as filtering a request
+     * modifies its runner. The test is executed within its own daemon thread
+     * group, which is destroyed once every thread the test started has
+     * finished.
+     *
+     * @return The result of the test or null if the test was ignored.
+     */
+    private static JUnitResult.TestCase runTest(JUnitApi junit, ClassLoader loader,
+                                                Class<?> testClass, Object test, long timeout) {
+        String name = junit.name(test);
+        Object[] outcome = new Object[1];
+        Throwable[] error = new Throwable[1];
+
+        ThreadGroup group = new ThreadGroup(TESTS, "junit-" + name);
+        group.setDaemon(true);
+        Thread thread = new Thread(group, () -> {
+            try {
+                outcome[0] = junit.run(junit.filter(junit.classRequest(testClass), test));
+            } catch (InvocationTargetException e) {
+                error[0] = e.getTargetException();
+            } catch (Throwable e) {
+                error[0] = e;
+            }
+        }, "junit-" + name);
+        thread.setContextClassLoader(loader);
+        thread.setDaemon(true);
+
+        long start = System.currentTimeMillis();
+        thread.start();
+        try {
+            thread.join(timeout);
+        } catch (InterruptedException e) {
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        long duration = System.currentTimeMillis() - start;
+
+        if (thread.isAlive()) {
+            thread.interrupt();
+            return new JUnitResult.TestCase(name, false, duration,
+                    "Timed out after " + timeout + "ms");
+        }
+        if (error[0] != null) {
+            return new JUnitResult.TestCase(name, false, duration, error[0].toString());
+        }
+
+        try {
+            if (junit.runCount(outcome[0]) == 0) {
+                return null;
+            }
+            List<?> failures = junit.failures(outcome[0]);
+            if (failures.isEmpty()) {
+                return new JUnitResult.TestCase(name, true, duration, "");
+            }
+            return new JUnitResult.TestCase(name, false, duration,
+                    junit.trace(failures.get(0)));
+        } catch (ReflectiveOperationException e) {
+            return new JUnitResult.TestCase(name, false, duration, e.toString());
+        }
+    }
+
+    /**
+     * Determine whether any tests, such as tests that timed out, are still
+     * executing in the background.
+     *
+     * @return true iff a thread started by a test is still running.
+     */
+    static boolean hasRunningTests() {
+        return TESTS.activeCount() > 0;
+    }
+
+    /**
+     * Convert a class path string into the URLs of each entry.
+     *
+     * <p>Relative entries are resolved against the working directory and
+     * entries ending in * include every jar in the directory, matching the
+     * behaviour of the java command.
+     */
+    private static URL[] toUrls(String classPath, File working) throws MalformedURLException {
+        List<URL> urls = new ArrayList<>();
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            File file = new File(entry);
+            if (!file.isAbsolute()) {
+                file = new File(working, entry);
+            }
+
+            if (file.getName().equals("*")) {
+                File[] jars = file.getParentFile().listFiles((dir, name) ->
+                        name.toLowerCase().endsWith(".jar"));
+                if (jars != null) {
+                    for (File jar : jars) {
+                        urls.add(jar.toURI().toURL());
+                    }
+                }
+                continue;
+            }
+
+            urls.add(file.toURI().toURL());
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    /**
+     * Reflective access to the JUnit 4 API loaded by a test class loader.
+     */
+    private static class JUnitApi {
+        private final Class<?> request;
+        private final Class<?> runner;
+        private final Class<?> description;
+        private final Class<?> core;
+        private final Class<?> result;
+        private final Class<?> failure;
+
+        JUnitApi(ClassLoader loader) throws ClassNotFoundException, NoSuchMethodException {
+            request = loader.loadClass("org.junit.runner.Request");
+            runner = loader.loadClass("org.junit.runner.Runner");
+            description = loader.loadClass("org.junit.runner.Description");
+            core = loader.loadClass("org.junit.runner.JUnitCore");
+            result = loader.loadClass("org.junit.runner.Result");
+            failure = loader.loadClass("org.junit.runner.notification.Failure");
+            core.getConstructor();
+        }
+
+        Object classRequest(Class<?> testClass) throws ReflectiveOperationException {
+            return request.getMethod("aClass", Class.class).invoke(null, testClass);
+        }
+
+        List<?> children(Object classRequest) throws ReflectiveOperationException {
+            Object testRunner = request.getMethod("getRunner").invoke(classRequest);
+            Object root = runner.getMethod("getDescription").invoke(testRunner);
+            return (List<?>) description.getMethod("getChildren").invoke(root);
+        }
+
+        Object filter(Object classRequest, Object test) throws ReflectiveOperationException {
+            return request.getMethod("filterWith", description).invoke(classRequest, test);
+        }
+
+        Object run(Object testRequest) throws ReflectiveOperationException {
+            Object instance = core.getConstructor().newInstance();
+            return core.getMethod("run", request).invoke(instance, testRequest);
+        }
+
+        String name(Object test) {
+            try {
+                Object method = description.getMethod("getMethodName").invoke(test);
+                if (method != null) {
+                    return method.toString();
+                }
+                return description.getMethod("getDisplayName").invoke(test).toString();
+            } catch (ReflectiveOperationException e) {
+                return test.toString();
+            }
+        }
+
+        int runCount(Object outcome) throws ReflectiveOperationException {
+            return (int) result.getMethod("getRunCount").invoke(outcome);
+        }
+
+        List<?> failures(Object outcome) throws ReflectiveOperationException {
+            return (List<?>) result.getMethod("getFailures").invoke(outcome);
+        }
+
+        String trace(Object testFailure) throws ReflectiveOperationException {
+            return failure.getMethod("getTrace").invoke(testFailure).toString();
+        }
+    }
+
+    /**
+     * Security manager that prevents threads executing tests from exiting
+     * the JVM while permitting everything else.
+     */
+    private static class ExitTrap extends SecurityManager {
+        private static boolean installed = false;
+
+        /**
+         * Install the exit trap as the system security manager, if it has
+         * not already been installed.
+         */
+        static synchronized void install() {
+            if (installed) {
+                return;
+            }
+            installed = true;
+
+            if (System.getSecurityManager() != null) {
+                System.err.println("Security manager already installed, "
+                        + "System.exit calls from tests will not be intercepted");
+                return;
+            }
+            try {
+                System.setSecurityManager(new ExitTrap());
+            } catch (SecurityException | UnsupportedOperationException e) {
+                System.err.println("Unable to install security manager, "
+                        + "System.exit calls from tests will not be intercepted");
+            }
+        }
+
+        @Override
+        public void checkPermission(Permission permission) {
+
+        }
+
+        @Override
+        public void checkPermission(Permission permission, Object context) {
+
+        }
+
+        @Override
+        public void checkExit(int status) {
+            ThreadGroup group = Thread.currentThread().getThreadGroup();
+            if (group != null && TESTS.parentOf(group)) {
+                throw new SecurityException("Test called System.exit(" + status + ")");
+            }
+        }
+    }
+}
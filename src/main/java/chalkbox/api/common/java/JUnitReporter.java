@@ -0,0 +1,87 @@
+package chalkbox.api.common.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Entry point of a JVM forked to execute JUnit test classes on behalf of
+ * {@link JUnitRunner}.
+ *
+ * <p>Usage: {@code JUnitReporter <test class> <class path> [<test class> <class path>...]}
+ *
+ * <p>Each test class is executed with the {@link InProcessJUnitRunner} using
+ * its own class path, relative to the working directory of the process. The
+ * results of each class are written to standard output as soon as the class
+ * finishes, as a batch result stream, see {@link JUnitResult}.
+ *
+ * <p>Anything the tests of a class print is captured and reported as the
+ * errors of that class, unless the tests could not be executed.
+ */
+public class JUnitReporter {
+    /** Maximum time a single test method may execute in milliseconds */
+    private static final int TEST_TIMEOUT = 10000;
+    /** Maximum time all of the tests in a class may execute in milliseconds */
+    static final int CLASS_TIMEOUT = 60000;
+    /** Maximum amount of bytes of output captured from each test class */
+    private static final int OUTPUT_LIMIT = 65536;
+
+    public static void main(String[] args) {
+        if (args.length == 0 || args.length % 2 != 0) {
+            System.err.println("Usage: JUnitReporter <test class> <class path> "
+                    + "[<test class> <class path>...]");
+            System.exit(1);
+        }
+
+        PrintStream results = new PrintStream(
+                new FileOutputStream(FileDescriptor.out), true);
+
+        for (int i = 0; i < args.length; i += 2) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            PrintStream capture = new PrintStream(new LimitedStream(output), true);
+            System.setOut(capture);
+            System.setErr(capture);
+
+            JUnitResult result = InProcessJUnitRunner.run(args[i], args[i + 1],
+                    new File("."), TEST_TIMEOUT, CLASS_TIMEOUT);
+
+            capture.flush();
+            if (result.getErrors().isEmpty()) {
+                result.setErrors(output.toString());
+            }
+
+            results.print(result.serialize(args[i]));
+            results.flush();
+        }
+
+        /* Tests may have left threads running */
+        System.exit(0);
+    }
+
+    /**
+     * Discards anything written beyond the output limit.
+     */
+    private static class LimitedStream extends OutputStream {
+        private final ByteArrayOutputStream output;
+
+        LimitedStream(ByteArrayOutputStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (output.size() < OUTPUT_LIMIT) {
+                output.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            int kept = Math.max(0, Math.min(length, OUTPUT_LIMIT - output.size()));
+            output.write(bytes, offset, kept);
+        }
+    }
+}
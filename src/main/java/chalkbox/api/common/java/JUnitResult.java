@@ -0,0 +1,334 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.results.TestResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The structured results of executing a JUnit test class.
+ *
+ * <p>Results are sent between processes as a compact stream of lines, with
+ * tabs separating fields and tabs, newlines and backslashes escaped:
+ * <pre>
+ * test    testName(package.TestClass)    pass    12
+ * test    testOther(package.TestClass)   fail    3    message and trace
+ * errors  any error preventing the tests from executing
+ * end
+ * </pre>
+ * Lines which are not part of the stream are ignored, so anything else a
+ * process prints cannot corrupt the results.
+ *
+ * <p>The results of several test classes are sent as a batch by preceding
+ * the results of each class with its name:
+ * <pre>
+ * class   package.FirstTest
+ * test    ...
+ * end
+ * class   package.SecondTest
+ * ...
+ * </pre>
+ */
+public class JUnitResult {
+    /** Maximum length of a failure message in the result stream */
+    private static final int MESSAGE_LIMIT = 8192;
+
+    private List<TestCase> tests = new ArrayList<>();
+    private String errors = "";
+
+    /**
+     * The result of a single test method.
+     */
+    public static class TestCase {
+        private final String name;
+        private final boolean passed;
+        private final long duration;
+        private final String message;
+
+        /**
+         * Create the result of a test method.
+         *
+         * @param name Name of the test method.
+         * @param passed Whether the test passed.
+         * @param duration Execution time of the test in milliseconds.
+         * @param message Failure message and trace, empty if the test passed.
+         */
+        public TestCase(String name, boolean passed, long duration, String message) {
+            this.name = name;
+            this.passed = passed;
+            this.duration = duration;
+            this.message = message;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isPassed() {
+            return passed;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Record the result of a test method.
+     *
+     * @param test The result of the test.
+     */
+    public void add(TestCase test) {
+        tests.add(test);
+    }
+
+    /**
+     * @return The results of each test method in execution order.
+     */
+    public List<TestCase> getTests() {
+        return tests;
+    }
+
+    /**
+     * @return Any error that prevented the tests from executing.
+     */
+    public String getErrors() {
+        return errors;
+    }
+
+    public void setErrors(String errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * @return Whether any test was executed or the tests executed without
+     *         error, otherwise the test class could not be run at all.
+     */
+    public boolean wasExecuted() {
+        return !tests.isEmpty() || errors.isEmpty();
+    }
+
+    /**
+     * @return The amount of tests that passed.
+     */
+    public int getPasses() {
+        int passes = 0;
+        for (TestCase test : tests) {
+            if (test.passed) {
+                passes++;
+            }
+        }
+        return passes;
+    }
+
+    /**
+     * @return The amount of tests that failed.
+     */
+    public int getFails() {
+        return getTotal() - getPasses();
+    }
+
+    /**
+     * @return The amount of tests that were executed.
+     */
+    public int getTotal() {
+        return tests.size();
+    }
+
+    /**
+     * Get the formatted output of the test failures.
+     *
+     * <p>The output is the name of each failing test followed by its failure
+     * message.
+     *
+     * @return The formatted output of the test failures.
+     */
+    public String formatOutput() {
+        StringBuilder builder = new StringBuilder();
+        for (TestCase test : tests) {
+            if (!test.passed) {
+                builder.append(test.name).append(System.lineSeparator())
+                        .append(test.message).append(System.lineSeparator());
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Convert the results into the JSON format produced by
+     * {@link JUnitRunner#runTest(String, String, java.io.File)}.
+     *
+     * @return The json output of the test results, see {@link #toResult()}.
+     */
+    public Data toData() {
+        return toResult().toData();
+    }
+
+    /**
+     * Convert the results into a typed test result.
+     *
+     * <p>The execution time of each test in milliseconds is included as
+     * timings, to help find slow tests.
+     *
+     * @return The result of the test class.
+     */
+    public TestResult toResult() {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (TestCase test : tests) {
+            timings.put(test.name, test.duration);
+        }
+        return new TestResult(getPasses(), getFails(), getTotal(), formatOutput(),
+                errors, timings);
+    }
+
+    /**
+     * Write the results as a result stream, truncating long failure messages.
+     *
+     * @return The result stream of these results.
+     */
+    public String serialize() {
+        StringBuilder builder = new StringBuilder();
+        for (TestCase test : tests) {
+            String message = test.message;
+            if (message.length() > MESSAGE_LIMIT) {
+                message = message.substring(0, MESSAGE_LIMIT) + "... (truncated)";
+            }
+
+            builder.append("test\t").append(escape(test.name))
+                    .append('\t').append(test.passed ? "pass" : "fail")
+                    .append('\t').append(test.duration)
+                    .append('\t').append(escape(message)).append('\n');
+        }
+        if (!errors.isEmpty()) {
+            builder.append("errors\t").append(escape(errors)).append('\n');
+        }
+        builder.append("end\n");
+        return builder.toString();
+    }
+
+    /**
+     * Write the results of a test class as part of a batch result stream.
+     *
+     * @param className Name of the test class.
+     * @return The result stream of these results.
+     */
+    public String serialize(String className) {
+        return "class\t" + escape(className) + "\n" + serialize();
+    }
+
+    /**
+     * Read results from a result stream.
+     *
+     * @param stream The output of a process containing a result stream.
+     * @return The results or null if the stream did not finish.
+     */
+    public static JUnitResult parse(String stream) {
+        return parse(new BufferedReader(new StringReader(stream)));
+    }
+
+    /**
+     * Read the results of each test class from a batch result stream.
+     *
+     * <p>Test classes whose results did not finish, e.g. as the process
+     * executing them died, are not included.
+     *
+     * @param stream The output of a process containing a batch result stream.
+     * @return The results of each test class in the order they were executed.
+     */
+    public static Map<String, JUnitResult> parseBatch(String stream) {
+        Map<String, JUnitResult> results = new LinkedHashMap<>();
+        BufferedReader in = new BufferedReader(new StringReader(stream));
+
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields[0].equals("class") && fields.length == 2) {
+                    JUnitResult result = parse(in);
+                    if (result != null) {
+                        results.put(unescape(fields[1]), result);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            /* Cannot occur when reading a string */
+        }
+
+        return results;
+    }
+
+    /**
+     * Read results from a result stream up to the end of the results.
+     */
+    private static JUnitResult parse(BufferedReader in) {
+        JUnitResult result = new JUnitResult();
+
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields[0].equals("end") && fields.length == 1) {
+                    return result;
+                } else if (fields[0].equals("errors") && fields.length == 2) {
+                    result.setErrors(unescape(fields[1]));
+                } else if (fields[0].equals("test") && fields.length == 5) {
+                    try {
+                        result.add(new TestCase(unescape(fields[1]),
+                                fields[2].equals("pass"), Long.parseLong(fields[3]),
+                                unescape(fields[4])));
+                    } catch (NumberFormatException e) {
+                        /* Not part of the result stream */
+                    }
+                }
+            }
+        } catch (IOException e) {
+            /* Cannot occur when reading a string */
+        }
+
+        return null;
+    }
+
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\': builder.append("\\\\"); break;
+                case '\t': builder.append("\\t"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                default: builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String unescape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                builder.append(c);
+                continue;
+            }
+
+            char next = value.charAt(++i);
+            switch (next) {
+                case 't': builder.append('\t'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                default: builder.append(next);
+            }
+        }
+        return builder.toString();
+    }
+}
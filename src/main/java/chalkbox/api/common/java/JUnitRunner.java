@@ -6,17 +6,54 @@ import chalkbox.api.common.ProcessExecution;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
 /**
- * Utility class to execute a JUnit test.
+ * Utility class to execute JUnit tests.
  */
 public class JUnitRunner {
-    private static final String JUNIT_RUNNER = "org.junit.runner.JUnitCore";
+    private static final String JUNIT_RUNNER = JUnitReporter.class.getName();
+    /** Additional time given to a JUnit process to start and exit in milliseconds */
+    private static final int PROCESS_GRACE = 10000;
+    /**
+     * Expected largest result stream of a class, its escaped output and
+     * failure messages, used to keep a batch within the output limit
+     */
+    private static final int CLASS_RESULT_SIZE = 256 * 1024;
+
+    /**
+     * Run a JUnit test with the name className and a given classPath, isolating
+     * the test as described by isolation.
+     *
+     * @param className Name of the JUnit class to execute.
+     * @param classPath Class path for the JUnit execution.
+     * @param working Working directory to execute tests within.
+     * @param isolation How the test is isolated from chalkbox.
+     *
+     * @return The json output of executing a JUnit test
+     */
+    public static Data runTest(String className, String classPath, File working,
+                               TestIsolation isolation) {
+        if (isolation == TestIsolation.CLASSLOADER) {
+            return InProcessJUnitRunner.runTest(className, classPath, working);
+        }
+        if (isolation == TestIsolation.WORKER) {
+            return TestWorkerPool.shared().runTest(className, classPath, working);
+        }
+        return runTest(className, classPath, working);
+    }
 
     /**
      * Run a JUnit test with the name className and a given classPath.
      *
+     * <p>The test is executed in a new JVM by the {@link JUnitReporter},
+     * which sends back a result stream rather than console output to parse.
+     *
      * @param className Name of the JUnit class to execute.
      * @param classPath Class path for the JUnit execution.
      * @param working Working directory to execute tests within.
@@ -24,49 +61,167 @@ public class JUnitRunner {
      * @return The json output of executing a JUnit test
      */
     public static Data runTest(String className, String classPath, File working) {
-        Data results = new Data();
+        return runTests(Collections.singletonMap(className, classPath), working)
+                .get(className);
+    }
+
+    /**
+     * Run several JUnit tests, each with its own class path, isolating the
+     * tests as described by isolation.
+     *
+     * @param classPaths Map of JUnit class names to execute to the class path
+     *                   to execute each class with.
+     * @param working Working directory to execute tests within.
+     * @param isolation How the tests are isolated from chalkbox.
+     *
+     * @return The json output of executing each JUnit test, by class name.
+     */
+    public static Map<String, Data> runTests(Map<String, String> classPaths, File working,
+                                             TestIsolation isolation) {
+        if (isolation == TestIsolation.PROCESS) {
+            return runTests(classPaths, working);
+        }
+
+        Map<String, Data> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> test : classPaths.entrySet()) {
+            results.put(test.getKey(),
+                    runTest(test.getKey(), test.getValue(), working, isolation));
+        }
+        return results;
+    }
+
+    /**
+     * Run several JUnit tests, each with its own class path, in as few new
+     * JVMs as possible.
+     *
+     * <p>Classes are executed in batches small enough that their result
+     * stream fits within the output limit of a process, see
+     * {@link Execution#setOutputLimit(int)}. The tests of each class are
+     * still limited by the timeout of a class, so a class that hangs does
+     * not prevent the other classes from executing.
+     *
+     * <p>The result stream is sent back a class at a time, so the classes
+     * that finished before a JVM died are still reported. Any class of a
+     * batch without results, because a class exited the JVM or the stream
+     * was truncated, is executed again in a JVM of its own.
+     *
+     * @param classPaths Map of JUnit class names to execute to the class path
+     *                   to execute each class with.
+     * @param working Working directory to execute tests within.
+     *
+     * @return The json output of executing each JUnit test, by class name.
+     */
+    public static Map<String, Data> runTests(Map<String, String> classPaths, File working) {
+        Map<String, Data> results = new LinkedHashMap<>();
+        int batchSize = Math.max(1, Execution.getOutputLimit() / CLASS_RESULT_SIZE);
+
+        Map<String, String> batch = new LinkedHashMap<>();
+        for (Map.Entry<String, String> test : classPaths.entrySet()) {
+            batch.put(test.getKey(), test.getValue());
+            if (batch.size() == batchSize) {
+                results.putAll(runBatch(batch, working));
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            results.putAll(runBatch(batch, working));
+        }
+
+        return results;
+    }
+
+    /**
+     * Run a batch of JUnit tests in a single new JVM, executing any class
+     * without results again on its own.
+     */
+    private static Map<String, Data> runBatch(Map<String, String> classPaths, File working) {
+        List<String> args = new ArrayList<>();
+        args.add(javaExecutable());
+        args.add("-cp");
+        args.add(classPath());
+        args.add(JUNIT_RUNNER);
+        for (Map.Entry<String, String> test : classPaths.entrySet()) {
+            args.add(test.getKey());
+            args.add(test.getValue());
+        }
 
         /* Execute a JUnit process */
+        int timeout = classPaths.size() * JUnitReporter.CLASS_TIMEOUT + PROCESS_GRACE;
         ProcessExecution process;
         try {
-            process = Execution.runProcess(working, 60000, "java", "-cp",
-                    classPath, JUNIT_RUNNER, className);
+            process = Execution.runProcess("junit", working, timeout,
+                    args.toArray(new String[0]));
         } catch (IOException e) {
             e.printStackTrace();
-            results.set("errors", "Test running IO Error - see tutor");
-            return results;
+            return error(classPaths, "Test running IO Error - see tutor");
         } catch (TimeoutException e) {
-            results.set("errors", "Timed out");
-            return results;
+            return error(classPaths, "Timed out");
         }
 
-        /* Consume the std out and std error */
-        String output = process.getOutput();
-        String errors = process.getError();
+        /* Parse the result stream */
+        Map<String, JUnitResult> parsed = JUnitResult.parseBatch(process.getOutput());
+        Map<String, Data> results = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String className : classPaths.keySet()) {
+            JUnitResult result = parsed.get(className);
+            results.put(className, result == null ? null : result.toData());
+            if (result == null) {
+                missing.add(className);
+            }
+        }
+        if (missing.isEmpty()) {
+            return results;
+        }
 
-        results.set("output", output);
-        results.set("errors", errors);
+        System.err.println(process.getError());
+        for (String className : missing) {
+            if (classPaths.size() > 1) {
+                Map<String, String> single = Collections.singletonMap(className,
+                        classPaths.get(className));
+                results.put(className, runBatch(single, working).get(className));
+                continue;
+            }
 
-        /* Parse the JUnit output */
-        JUnitParser jUnit;
-        try {
-            jUnit = JUnitParser.parse(output);
-        } catch (IOException io) {
-            io.printStackTrace();
-            return results;
-        } catch (JUnitParseException p) {
-            System.err.println(output);
-            System.err.println(errors);
-            p.printStackTrace();
-            results.set("errors", p.getMessage());
-            return results;
+            Data died = new Data();
+            died.set("errors", "JUnit died when executing tests - call to System.exit?");
+            results.put(className, died);
         }
 
-        results.set("passes", jUnit.getPasses());
-        results.set("fails", jUnit.getFails());
-        results.set("total", jUnit.getTotal());
-        results.set("output", jUnit.formatOutput());
+        return results;
+    }
+
+    /**
+     * @return The java executable of the JVM running chalkbox, rather than
+     *         the first one on the path.
+     */
+    static String javaExecutable() {
+        return System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java";
+    }
+
+    /**
+     * Get the class path of chalkbox with every entry made absolute, so it
+     * can be used by a JVM running in a submission's working directory.
+     *
+     * @return The absolute class path of chalkbox.
+     */
+    static String classPath() {
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                entries.add(new File(entry).getAbsolutePath());
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
 
+    private static Map<String, Data> error(Map<String, String> classPaths, String message) {
+        Map<String, Data> results = new LinkedHashMap<>();
+        for (String className : classPaths.keySet()) {
+            Data result = new Data();
+            result.set("errors", message);
+            results.put(className, result);
+        }
         return results;
     }
 }
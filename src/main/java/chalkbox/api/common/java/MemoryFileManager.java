@@ -0,0 +1,54 @@
+package chalkbox.api.common.java;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * A file manager which keeps compiled class files in memory rather than
+ * writing them to an output directory.
+ */
+class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+    private final Map<String, byte[]> classes;
+
+    /**
+     * Create a file manager storing compiled classes in the given map.
+     *
+     * @param fileManager The file manager used for everything except class output.
+     * @param classes Map of binary class names to byte code to store classes in.
+     */
+    MemoryFileManager(JavaFileManager fileManager, Map<String, byte[]> classes) {
+        super(fileManager);
+        this.classes = classes;
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                               JavaFileObject.Kind kind,
+                                               FileObject sibling) throws IOException {
+        if (kind != JavaFileObject.Kind.CLASS) {
+            return super.getJavaFileForOutput(location, className, kind, sibling);
+        }
+
+        URI uri = URI.create("memory:///" + className.replace('.', '/') + kind.extension);
+        return new SimpleJavaFileObject(uri, kind) {
+            @Override
+            public OutputStream openOutputStream() {
+                return new ByteArrayOutputStream() {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        classes.put(className, toByteArray());
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package chalkbox.api.common.java;
+
+/**
+ * How JUnit tests are isolated from the chalkbox process when executed.
+ */
+public enum TestIsolation {
+    /** Fork a new JVM for every test class */
+    PROCESS,
+    /** Run tests within the chalkbox JVM using an isolated class loader */
+    CLASSLOADER,
+    /** Run tests in a pool of long-lived worker JVMs, see {@link TestWorkerPool} */
+    WORKER
+}
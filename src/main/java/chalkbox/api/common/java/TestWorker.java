@@ -0,0 +1,65 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.collections.Data;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+/**
+ * Entry point of a long-lived JVM that executes JUnit tests on behalf of a
+ * {@link TestWorkerPool}.
+ *
+ * <p>Jobs are read from standard input, one JSON object per line:
+ * <pre>
+ * {"className": "...", "classPath": "...", "working": "...",
+ *  "testTimeout": 10000, "classTimeout": 60000}
+ * </pre>
+ *
+ * <p>Each job is executed with the {@link InProcessJUnitRunner} and a single
+ * line response is written to standard output:
+ * <pre>
+ * {"result": {"passes": 1, "fails": 0, ...}, "healthy": true}
+ * </pre>
+ *
+ * <p>Anything the tests print to standard output is redirected to standard
+ * error so that it cannot corrupt the responses. A worker which has tests
+ * still running in the background responds as unhealthy and exits.
+ */
+public class TestWorker {
+    public static void main(String[] args) throws IOException {
+        PrintStream responses = new PrintStream(
+                new FileOutputStream(FileDescriptor.out), true);
+        System.setOut(System.err);
+
+        BufferedReader jobs = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = jobs.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            Data job = new Data(line);
+            JUnitResult result = InProcessJUnitRunner.run(
+                    job.get("className").toString(),
+                    job.get("classPath").toString(),
+                    new File(job.get("working").toString()),
+                    Integer.parseInt(job.get("testTimeout").toString()),
+                    Integer.parseInt(job.get("classTimeout").toString()));
+
+            boolean healthy = !InProcessJUnitRunner.hasRunningTests();
+            Data response = new Data();
+            response.set("result", result.toData());
+            response.set("healthy", healthy);
+            responses.println(response);
+
+            if (!healthy) {
+                System.exit(0);
+            }
+        }
+    }
+}
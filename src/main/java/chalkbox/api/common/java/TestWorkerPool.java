@@ -0,0 +1,334 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.common.ProcessGovernor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A pool of long-lived JVMs which execute JUnit tests, see {@link TestWorker}.
+ *
+ * <p>Tests remain isolated from the chalkbox process, as with forking a JVM
+ * for each test class, without paying for JVM startup and JIT warm-up on
+ * every test class.
+ *
+ * <p>A worker is replaced after it crashes, after a job times out, after it
+ * reports tests still running in the background or after it has executed a
+ * maximum amount of jobs.
+ *
+ * <p>Each job holds a junit slot of the {@link ProcessGovernor} while it is
+ * executed, idle workers do not, so idle workers never prevent other tools
+ * from being executed.
+ *
+ * <p>A worker runs in the working directory of the jobs it executes, as a
+ * forked JVM would, so it is only reused for jobs with the same working
+ * directory. The oldest idle worker is replaced once the pool is full.
+ */
+public class TestWorkerPool {
+    /** Maximum time a single test method may execute in milliseconds */
+    private static final int TEST_TIMEOUT = 10000;
+    /** Maximum time all of the tests in a class may execute in milliseconds */
+    private static final int CLASS_TIMEOUT = 60000;
+    /** Additional time given to a worker to start and respond in milliseconds */
+    private static final int WORKER_GRACE = 10000;
+    /** Amount of jobs a worker executes before it is replaced */
+    private static final int MAX_JOBS = 100;
+    /** Lines at the end of a worker's standard error kept to diagnose crashes */
+    private static final int ERROR_LINES = 50;
+    /** Time given to read the rest of a crashed worker's standard error in milliseconds */
+    private static final int ERROR_GRACE = 1000;
+
+    private static TestWorkerPool shared;
+
+    private final int size;
+    private final int maxJobs;
+    private final Semaphore available;
+    /* Idle workers, oldest first, guarded by this pool */
+    private final Deque<Worker> idle = new ArrayDeque<>();
+    /* Workers which are running, whether idle or executing a job */
+    private int workers = 0;
+    private final ExecutorService readers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "test-worker-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Create a pool of test workers.
+     *
+     * @param size Maximum amount of workers executing jobs at once.
+     * @param maxJobs Amount of jobs a worker executes before it is replaced.
+     */
+    public TestWorkerPool(int size, int maxJobs) {
+        this.size = size;
+        this.maxJobs = maxJobs;
+        this.available = new Semaphore(size, true);
+    }
+
+    /**
+     * Get the pool shared by all processors, creating it with a worker for
+     * each available processor if it does not yet exist.
+     *
+     * @return The shared test worker pool.
+     */
+    public static synchronized TestWorkerPool shared() {
+        if (shared == null) {
+            shared = new TestWorkerPool(Runtime.getRuntime().availableProcessors(), MAX_JOBS);
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close));
+        }
+        return shared;
+    }
+
+    /**
+     * Run a JUnit test with the name className and a given classPath on a
+     * worker from this pool.
+     *
+     * @param className Name of the JUnit class to execute.
+     * @param classPath Class path for the JUnit execution.
+     * @param working Working directory of the tests, which relative class
+     *                path entries are also resolved against.
+     *
+     * @return The json output of executing a JUnit test
+     */
+    public Data runTest(String className, String classPath, File working) {
+        working = working.getAbsoluteFile();
+        Data job = new Data();
+        job.set("className", className);
+        job.set("classPath", classPath);
+        job.set("working", working.getAbsolutePath());
+        job.set("testTimeout", TEST_TIMEOUT);
+        job.set("classTimeout", CLASS_TIMEOUT);
+
+        ProcessGovernor.Slot slot;
+        try {
+            available.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error("Test execution interrupted - see tutor");
+        }
+        try {
+            slot = ProcessGovernor.shared().acquire("junit");
+        } catch (InterruptedException e) {
+            available.release();
+            Thread.currentThread().interrupt();
+            return error("Test execution interrupted - see tutor");
+        }
+
+        try {
+            Worker worker;
+            try {
+                worker = take(working);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return error("Test running IO Error - see tutor");
+            }
+            return dispatch(worker, job);
+        } finally {
+            slot.close();
+            available.release();
+        }
+    }
+
+    /**
+     * Take an idle worker running in a working directory, or start one,
+     * replacing the oldest idle worker if the pool is full.
+     */
+    private Worker take(File working) throws IOException {
+        Worker evicted = null;
+        synchronized (this) {
+            Iterator<Worker> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                Worker worker = iterator.next();
+                if (worker.working.equals(working)) {
+                    iterator.remove();
+                    return worker;
+                }
+            }
+            /* Every other worker is idle or executing a job, so one is idle */
+            if (workers >= size && !idle.isEmpty()) {
+                evicted = idle.removeFirst();
+                workers--;
+            }
+            workers++;
+        }
+
+        if (evicted != null) {
+            evicted.destroy();
+        }
+        try {
+            return new Worker(readers, working);
+        } catch (IOException e) {
+            retire();
+            throw e;
+        }
+    }
+
+    private synchronized void release(Worker worker) {
+        idle.addLast(worker);
+    }
+
+    private synchronized void retire() {
+        workers--;
+    }
+
+    /**
+     * Send a job to a worker and wait for its response, returning the worker
+     * to the pool if it can be reused.
+     */
+    private Data dispatch(Worker worker, Data job) {
+        String line;
+        try {
+            worker.input.write(job.toString());
+            worker.input.newLine();
+            worker.input.flush();
+
+            Future<String> response = readers.submit(worker.output::readLine);
+            line = response.get(CLASS_TIMEOUT + WORKER_GRACE, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            worker.destroy();
+            retire();
+            return error("Timed out");
+        } catch (IOException | ExecutionException e) {
+            worker.crashed();
+            retire();
+            return error("Test worker crashed");
+        } catch (InterruptedException e) {
+            worker.destroy();
+            retire();
+            Thread.currentThread().interrupt();
+            return error("Test execution interrupted - see tutor");
+        }
+
+        if (line == null) {
+            worker.crashed();
+            retire();
+            return error("Test worker crashed - call to System.exit?");
+        }
+
+        Data response = new Data(line);
+        worker.jobs++;
+        if (response.is("healthy") && worker.jobs < maxJobs) {
+            release(worker);
+        } else {
+            worker.destroy();
+            retire();
+        }
+
+        Object result = response.get("result");
+        if (result == null) {
+            return error("Invalid response from test worker - see tutor");
+        }
+        return new Data(result.toString());
+    }
+
+    private static Data error(String message) {
+        Data results = new Data();
+        results.set("errors", message);
+        return results;
+    }
+
+    /**
+     * Stop all of the idle workers in the pool.
+     */
+    public void close() {
+        synchronized (this) {
+            for (Worker worker : idle) {
+                worker.destroy();
+            }
+            workers -= idle.size();
+            idle.clear();
+        }
+        readers.shutdownNow();
+    }
+
+    /**
+     * A running worker JVM and the streams used to communicate with it.
+     */
+    private static class Worker {
+        private final File working;
+        private final Process process;
+        private final BufferedWriter input;
+        private final BufferedReader output;
+        private final Deque<String> errors = new ArrayDeque<>();
+        private final Future<?> errorReader;
+        private int jobs = 0;
+
+        /**
+         * Start a worker.
+         *
+         * @param readers Executor used to read the worker's standard error.
+         * @param working Working directory of the worker.
+         */
+        Worker(ExecutorService readers, File working) throws IOException {
+            this.working = working;
+            ProcessBuilder builder = new ProcessBuilder(JUnitRunner.javaExecutable(), "-cp",
+                    JUnitRunner.classPath(), TestWorker.class.getName());
+            builder.directory(working);
+            process = builder.start();
+            input = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+            output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            errorReader = readers.submit(this::readErrors);
+        }
+
+        /**
+         * Keep the last lines of standard error, draining the rest so the
+         * worker never blocks writing to it.
+         */
+        private void readErrors() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    synchronized (errors) {
+                        if (errors.size() == ERROR_LINES) {
+                            errors.removeFirst();
+                        }
+                        errors.addLast(line);
+                    }
+                }
+            } catch (IOException e) {
+                /* The worker has been destroyed */
+            }
+        }
+
+        /**
+         * Destroy a worker which stopped responding, reporting the end of
+         * its standard error.
+         */
+        void crashed() {
+            destroy();
+            try {
+                errorReader.get(ERROR_GRACE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                /* Report what has been read so far */
+            }
+            synchronized (errors) {
+                System.err.println("Test worker crashed, last standard error:");
+                for (String line : errors) {
+                    System.err.println(line);
+                }
+            }
+        }
+
+        void destroy() {
+            process.destroyForcibly();
+        }
+    }
+}
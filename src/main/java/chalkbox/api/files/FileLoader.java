@@ -1,19 +1,48 @@
 package chalkbox.api.files;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for loading file paths relative to a root folder.
+ *
+ * <p>Folders are walked with {@link Files#walkFileTree}, and the name,
+ * hidden file and glob filters are applied during the walk, so hidden
+ * folders are never entered and only matching files are kept.
+ *
+ * <p>A loader may also scan in parallel, where each folder at the top of
+ * the search is walked on its own thread. This is worthwhile for folders
+ * with many large subfolders, such as a folder of submissions.
  */
 public class FileLoader {
+    /** Fewest top level entries for a parallel scan to be worth starting threads */
+    private static final int PARALLEL_THRESHOLD = 16;
+    private static final Set<FileVisitOption> FOLLOW_LINKS =
+            EnumSet.of(FileVisitOption.FOLLOW_LINKS);
+
     private File root;
+    private Path rootPath;
     private String prefix = "";
     private String suffix = "";
     private boolean recursive = true;
     private boolean removeSuffix = false;
     private boolean ignoreHidden = true;
+    private boolean parallel = false;
+    private PathMatcher glob;
 
     /**
      * Create a file loader with the root folder
@@ -22,6 +51,7 @@ public class FileLoader {
      */
     public FileLoader(String root) {
         this.root = new File(root);
+        this.rootPath = this.root.toPath().toAbsolutePath().normalize();
     }
 
     /**
@@ -74,6 +104,26 @@ public class FileLoader {
         this.removeSuffix = removeSuffix;
     }
 
+    /**
+     * Only match files whose path relative to the loader root matches a
+     * glob, e.g. "src/**" or "*.{java,class}".
+     *
+     * @param pattern The glob pattern, see {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+     */
+    public FileLoader setGlob(String pattern) {
+        this.glob = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return this;
+    }
+
+    /**
+     * Turn on or off walking the folders at the top of the search in
+     * parallel. Files are returned in the same order either way.
+     */
+    public FileLoader setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
     /**
      * Search for files, returning the file paths relative to the loader root
      *
@@ -81,27 +131,70 @@ public class FileLoader {
      * @return file paths relative to the loader root
      */
     public List<String> loadFiles(File root) {
-        List<String> files = new ArrayList<>();
-        File[] subfiles = root.listFiles();
-        if (subfiles == null) {
-            return files;
+        Path start = root.toPath().toAbsolutePath().normalize();
+        if (!parallel || !recursive) {
+            return walk(start, start);
         }
-        for (File file : subfiles) {
-            // remove hidden files
-            if (hiddenFilter(file)) {
-                continue;
-            }
 
-            // Add nested directories
-            if (file.isDirectory() && recursive) {
-                files.addAll(loadFiles(file));
-                continue;
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(start)) {
+            for (Path child : children) {
+                entries.add(child);
             }
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+        if (entries.size() < PARALLEL_THRESHOLD) {
+            return walk(start, start);
+        }
 
-            if (file.getName().startsWith(prefix)
-                    && file.getName().endsWith(suffix)) {
-                files.add(truncatePath(file));
-            }
+        return entries.parallelStream()
+                .flatMap(entry -> walk(start, entry).stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Walk a file or folder within the search, which starts at top.
+     */
+    private List<String> walk(Path top, Path start) {
+        List<String> files = new ArrayList<>();
+        int depth = recursive ? Integer.MAX_VALUE : 1;
+        try {
+            Files.walkFileTree(start, FOLLOW_LINKS, depth, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(top) && isHidden(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (file.equals(top) || isHidden(file)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    String name = file.getFileName().toString();
+                    if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    Path relative = rootPath.relativize(file);
+                    if (glob != null && !glob.matches(relative)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    /* Folders are only visited as files when not searching recursively */
+                    files.add(truncatePath(relative, attrs.isDirectory()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            /* Unreadable folders are skipped, as they are by the visitor */
         }
         return files;
     }
@@ -110,11 +203,8 @@ public class FileLoader {
      * Utility function to truncate a path relative to root
      */
     public static String truncatePath(File root, File path) {
-        String location = root.toURI().relativize(path.toURI()).getPath();
-        if (path.isDirectory()) {
-            location = location.substring(0, location.length() - 1);
-        }
-        return location;
+        return separators(root.toPath().toAbsolutePath().normalize()
+                .relativize(path.toPath().toAbsolutePath().normalize()));
     }
 
     /**
@@ -129,15 +219,22 @@ public class FileLoader {
     /**
      * Utility function to truncate a path relative to root
      */
-    private String truncatePath(File path) {
-        String relative = root.toURI().relativize(path.toURI()).getPath();
+    private String truncatePath(Path relative, boolean directory) {
+        String path = separators(relative);
         if (removeSuffix) {
-            relative = relative.replace(suffix, "");
+            path = path.replace(suffix, "");
         }
-        return relative;
+        return directory ? path + "/" : path;
+    }
+
+    /** Paths are always separated by slashes, as URIs are */
+    private static String separators(Path path) {
+        String separator = path.getFileSystem().getSeparator();
+        String location = path.toString();
+        return separator.equals("/") ? location : location.replace(separator, "/");
     }
 
-    private boolean hiddenFilter(File file) {
-        return this.ignoreHidden && file.getName().startsWith(".");
+    private boolean isHidden(Path path) {
+        return this.ignoreHidden && path.getFileName().toString().startsWith(".");
     }
 }
@@ -0,0 +1,45 @@
+package chalkbox.api.results;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+
+/**
+ * The result of compiling a submission or a single class of a submission.
+ *
+ * <pre>
+ * {
+ *     "compiles": true,
+ *     "output": "compiler diagnostics"
+ * }
+ * </pre>
+ */
+public final class CompilationResult implements Result {
+    private final boolean compiles;
+    private final String output;
+
+    public CompilationResult(boolean compiles, String output) {
+        this.compiles = compiles;
+        this.output = output;
+    }
+
+    /**
+     * Read a compilation result from its JSON object.
+     */
+    public static CompilationResult of(Data data) {
+        return new CompilationResult(data.is("compiles"), Result.stringValue(data.get("output")));
+    }
+
+    public boolean compiles() {
+        return compiles;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    @Override
+    public void write(Data data, DataPath path) {
+        data.set(path.resolve("compiles"), compiles);
+        data.set(path.resolve("output"), output);
+    }
+}
@@ -0,0 +1,46 @@
+package chalkbox.api.results;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+
+/**
+ * The result of comparing the signature of a submitted class to the
+ * expected class.
+ *
+ * <pre>
+ * {
+ *     "differs": true,
+ *     "output": "description of each difference"
+ * }
+ * </pre>
+ */
+public final class ConformanceResult implements Result {
+    private final boolean differs;
+    private final String output;
+
+    public ConformanceResult(boolean differs, String output) {
+        this.differs = differs;
+        this.output = output;
+    }
+
+    /**
+     * Read a conformance result from its JSON object.
+     */
+    public static ConformanceResult of(Data data) {
+        return new ConformanceResult(data.is("differs"), Result.stringValue(data.get("output")));
+    }
+
+    public boolean differs() {
+        return differs;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    @Override
+    public void write(Data data, DataPath path) {
+        data.set(path.resolve("differs"), differs);
+        data.set(path.resolve("output"), output);
+    }
+}
@@ -0,0 +1,65 @@
+package chalkbox.api.results;
+
+import chalkbox.api.collections.Collection;
+import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+
+/**
+ * A typed result of a processor, such as the result of compiling or testing
+ * a submission.
+ *
+ * <p>Results are recorded with {@link Collection#setResult(DataPath, Result)}
+ * and keep their values in primitive fields, so later processors can
+ * consume them without reading them back out of JSON. Each result maps
+ * itself to JSON in one place, {@link #write(Data, DataPath)}, and is read
+ * back from JSON by a static of(Data) method of the result, used only for
+ * results loaded from a previous run.
+ */
+public interface Result {
+    /**
+     * Write the result into data as an object at a path, keeping any other
+     * values already stored in that object.
+     *
+     * @param data The data to write to.
+     * @param path The path of the result object.
+     */
+    void write(Data data, DataPath path);
+
+    /**
+     * @return The result as a standalone JSON object.
+     */
+    default Data toData() {
+        Data data = new Data();
+        write(data, DataPath.ROOT);
+        return data;
+    }
+
+    /**
+     * Read an integer value from JSON, which may have been stored as any
+     * number or as a string.
+     */
+    static int intValue(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return value == null ? 0 : Integer.parseInt(value.toString());
+    }
+
+    /**
+     * Read a float value from JSON, which may have been stored as any
+     * number or as a string.
+     */
+    static float floatValue(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
+        }
+        return value == null ? 0 : Float.parseFloat(value.toString());
+    }
+
+    /**
+     * Read a string value from JSON, or an empty string if there is none.
+     */
+    static String stringValue(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
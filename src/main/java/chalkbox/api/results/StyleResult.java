@@ -0,0 +1,93 @@
+package chalkbox.api.results;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The marks given for each category of a style marking file.
+ *
+ * <pre>
+ * {
+ *     "raw": "contents of the style file",
+ *     "marks": {"category": 2.5}
+ * }
+ * </pre>
+ */
+public final class StyleResult implements Result {
+    private final String raw;
+    private final String[] categories;
+    private final float[] marks;
+
+    /**
+     * @param raw Contents of the style file.
+     * @param categories Name of each category.
+     * @param marks Mark of the category at the same index.
+     */
+    public StyleResult(String raw, String[] categories, float[] marks) {
+        this.raw = raw;
+        this.categories = categories;
+        this.marks = marks;
+    }
+
+    /**
+     * Read a style result from its JSON object.
+     */
+    public static StyleResult of(Data data) {
+        List<String> categories = new ArrayList<>();
+        List<Object> marks = new ArrayList<>();
+        Object marksValue = data.get("marks");
+        if (marksValue instanceof Data) {
+            Data marksData = (Data) marksValue;
+            for (String category : marksData.keys()) {
+                categories.add(category);
+                marks.add(marksData.get(DataPath.ROOT.resolve(category)));
+            }
+        }
+
+        float[] values = new float[marks.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Result.floatValue(marks.get(i));
+        }
+        return new StyleResult(Result.stringValue(data.get("raw")),
+                categories.toArray(new String[0]), values);
+    }
+
+    public String getRaw() {
+        return raw;
+    }
+
+    public int getCategoryCount() {
+        return categories.length;
+    }
+
+    public String getCategory(int index) {
+        return categories[index];
+    }
+
+    public float getMark(int index) {
+        return marks[index];
+    }
+
+    /**
+     * @return The sum of the marks of every category.
+     */
+    public float getTotal() {
+        float total = 0;
+        for (float mark : marks) {
+            total += mark;
+        }
+        return total;
+    }
+
+    @Override
+    public void write(Data data, DataPath path) {
+        data.set(path.resolve("raw"), raw);
+        DataPath marksPath = path.resolve("marks");
+        for (int i = 0; i < categories.length; i++) {
+            data.set(marksPath.resolve(categories[i]), marks[i]);
+        }
+    }
+}
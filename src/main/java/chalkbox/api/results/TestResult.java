@@ -0,0 +1,137 @@
+package chalkbox.api.results;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of executing a JUnit test class.
+ *
+ * <p>A test class which could not be executed, e.g. because it timed out
+ * or its class did not compile, has only errors.
+ *
+ * <pre>
+ * {
+ *     "passes": 3,
+ *     "fails": 1,
+ *     "total": 4,
+ *     "output": "failed test names and messages",
+ *     "errors": "standard error of the tests",
+ *     "timings": {"testName": 12}
+ * }
+ * </pre>
+ */
+public final class TestResult implements Result {
+    private final boolean executed;
+    private final int passes;
+    private final int fails;
+    private final int total;
+    private final String output;
+    private final String errors;
+    private final Map<String, Long> timings;
+
+    /**
+     * Create the result of a test class which was executed.
+     *
+     * @param timings Milliseconds taken by each test.
+     */
+    public TestResult(int passes, int fails, int total, String output, String errors,
+                      Map<String, Long> timings) {
+        this(true, passes, fails, total, output, errors, timings);
+    }
+
+    private TestResult(boolean executed, int passes, int fails, int total, String output,
+                       String errors, Map<String, Long> timings) {
+        this.executed = executed;
+        this.passes = passes;
+        this.fails = fails;
+        this.total = total;
+        this.output = output;
+        this.errors = errors;
+        this.timings = timings;
+    }
+
+    /**
+     * Create the result of a test class which could not be executed.
+     *
+     * @param errors Why the test class was not executed.
+     */
+    public static TestResult error(String errors) {
+        return new TestResult(false, 0, 0, 0, "", errors, Collections.emptyMap());
+    }
+
+    /**
+     * Read a test result from its JSON object.
+     */
+    public static TestResult of(Data data) {
+        String errors = Result.stringValue(data.get("errors"));
+        if (data.get("passes") == null) {
+            return error(errors);
+        }
+
+        Map<String, Long> timings = new LinkedHashMap<>();
+        Object times = data.get("timings");
+        if (times instanceof Data) {
+            Data timesData = (Data) times;
+            for (String test : timesData.keys()) {
+                timings.put(test, (long) Result.intValue(timesData.get(DataPath.ROOT.resolve(test))));
+            }
+        }
+        return new TestResult(Result.intValue(data.get("passes")),
+                Result.intValue(data.get("fails")), Result.intValue(data.get("total")),
+                Result.stringValue(data.get("output")), errors, timings);
+    }
+
+    /**
+     * @return Whether the tests were executed, otherwise there are only errors.
+     */
+    public boolean wasExecuted() {
+        return executed;
+    }
+
+    public int getPasses() {
+        return passes;
+    }
+
+    public int getFails() {
+        return fails;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public Map<String, Long> getTimings() {
+        return timings;
+    }
+
+    @Override
+    public void write(Data data, DataPath path) {
+        if (!executed) {
+            data.set(path.resolve("errors"), errors);
+            return;
+        }
+        data.set(path.resolve("passes"), passes);
+        data.set(path.resolve("fails"), fails);
+        data.set(path.resolve("total"), total);
+        data.set(path.resolve("output"), output);
+        data.set(path.resolve("errors"), errors);
+
+        Data times = new Data();
+        for (Map.Entry<String, Long> timing : timings.entrySet()) {
+            times.set(DataPath.ROOT.resolve(timing.getKey()), timing.getValue());
+        }
+        data.set(path.resolve("timings"), times);
+    }
+}
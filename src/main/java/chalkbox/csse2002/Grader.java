@@ -4,6 +4,11 @@ import chalkbox.api.annotations.Pipe;
 import chalkbox.api.annotations.Processor;
 import chalkbox.api.collections.Collection;
 import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+import chalkbox.api.results.StyleResult;
+import chalkbox.api.results.TestResult;
+import chalkbox.java.junit.JUnit;
+import chalkbox.java.test.JavaTest;
 
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
@@ -44,6 +49,8 @@ public class Grader {
     /** Total amount of possible passing tests */
     private static float TOTAL_TESTS = 146f;
 
+    private static final DataPath SAMPLE_SOLUTION = JUnit.SOLUTIONS.resolve("solution");
+
     /**
      * Grade a submission.
      */
@@ -57,12 +64,11 @@ public class Grader {
 
         /* Calculate the percentage of passing java tests */
         int passingTests = 0;
-        for (String test : data.keys("tests")) {
-            String testKey = "tests." + test.replace(".", "\\.");
-
-            if (data.get(testKey + ".passes") != null) {
-                passingTests += Integer.parseInt(data.get("tests."
-                        + test.replace(".", "\\.") + ".passes").toString());
+        for (String test : data.keys(JavaTest.TESTS)) {
+            TestResult result = submission.getResult(JavaTest.TESTS.resolve(test),
+                    TestResult.class, TestResult::of);
+            if (result != null && result.wasExecuted()) {
+                passingTests += result.getPasses();
             }
         }
         float testMarks = (passingTests / TOTAL_TESTS) * 45;
@@ -71,43 +77,38 @@ public class Grader {
         data.set("grades.tests.rawGrade", testMarks);
 
         /* Calculate the style marks total */
-        float styleMarks = 0;
-        for (String category : data.keys("style.marks")) {
-            styleMarks += Float.parseFloat(data.get("style.marks." + category).toString());
-        }
+        StyleResult style = submission.getResult(Style.STYLE, StyleResult.class, StyleResult::of);
+        float styleMarks = style == null ? 0 : style.getTotal();
 
         /* Determine the baseline amount of tests that pass for the sample solution */
         Map<String, Integer> baseline = new HashMap<>();
-        for (String clazz : data.keys("junit.solutions.solution")) {
-            Object base = data.get("junit.solutions.solution."
-                    + clazz.replace(".", "\\.") + ".passes");
-            if (base == null) {
+        for (String clazz : data.keys(SAMPLE_SOLUTION)) {
+            TestResult base = submission.getResult(SAMPLE_SOLUTION.resolve(clazz),
+                    TestResult.class, TestResult::of);
+            if (base == null || !base.wasExecuted()) {
                 continue;
             }
-            int passes = Integer.parseInt(base.toString());
-            baseline.put(clazz, passes);
+            baseline.put(clazz, base.getPasses());
         }
 
         /* Calculate the amount of solutions with less tests passing than the sample */
         float totalPossible = 0f;
         float junitGrade = 0f;
-        for (String solution : data.keys("junit.solutions")) {
+        for (String solution : data.keys(JUnit.SOLUTIONS)) {
             if (solution.equals("output") || solution.equals("compiles")
                     || solution.equals("solution")) {
                 continue;
             }
 
-            for (String clazz : data.keys("junit.solutions." + solution)) {
-                String testKey = "junit.solutions." + solution + "."
-                        + clazz.replace(".", "\\.");
-
-                if (data.get(testKey + ".passes") == null) {
+            DataPath solutionPath = JUnit.SOLUTIONS.resolve(solution);
+            for (String clazz : data.keys(solutionPath)) {
+                TestResult result = submission.getResult(solutionPath.resolve(clazz),
+                        TestResult.class, TestResult::of);
+                if (result == null || !result.wasExecuted()) {
                     continue;
                 }
 
-                int passes = Integer.parseInt(data.get(testKey + ".passes").toString());
-
-                if (passes < baseline.get(clazz)) {
+                if (result.getPasses() < baseline.get(clazz)) {
                     junitGrade += 1;
                     break;
                 }
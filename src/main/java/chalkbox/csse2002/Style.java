@@ -5,11 +5,15 @@ import chalkbox.api.annotations.Pipe;
 import chalkbox.api.annotations.Processor;
 import chalkbox.api.collections.Collection;
 import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+import chalkbox.api.results.StyleResult;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -54,6 +58,9 @@ import java.util.regex.Pattern;
  */
 @Processor
 public class Style {
+    /** Path of the {@link StyleResult} of each submission */
+    public static final DataPath STYLE = DataPath.of("style");
+
     /** Horrific Regex pattern for detecting mark categories
      *
      * <p>Searches for the pattern:
@@ -64,7 +71,7 @@ public class Style {
                     Pattern.CASE_INSENSITIVE);
 
     /** Root directory of style files. Directory should include .style files in top level */
-    @ConfigItem(key = "style",
+    @ConfigItem(key = "style", input = true,
                 description = "Root directory of style files. Top level should have only .style files")
     public File styleRoot;
 
@@ -89,14 +96,19 @@ public class Style {
             System.err.println("Missing style file for " + data.get("sid"));
             return collection;
         }
-        data.set("style.raw", style);
-
+        /* A category given more than once keeps its last mark */
+        Map<String, Float> marks = new LinkedHashMap<>();
         Matcher matcher = STYLE_PATTERN.matcher(style);
         while (matcher.find()) {
-            String category = matcher.group(1).trim();
-            float result = Float.parseFloat(matcher.group(2).trim());
-            data.set("style.marks." + category, result);
+            marks.put(matcher.group(1).trim(), Float.parseFloat(matcher.group(2).trim()));
+        }
+
+        String[] categories = marks.keySet().toArray(new String[0]);
+        float[] results = new float[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            results[i] = marks.get(categories[i]);
         }
+        collection.setResult(STYLE, new StyleResult(style, categories, results));
 
         return collection;
     }
@@ -6,6 +6,8 @@ import chalkbox.api.annotations.Pipe;
 import chalkbox.api.annotations.Processor;
 import chalkbox.api.collections.Collection;
 import chalkbox.api.collections.Data;
+import chalkbox.api.results.TestResult;
+import chalkbox.java.test.JavaTest;
 
 import java.io.File;
 import java.io.IOException;
@@ -38,9 +40,8 @@ import java.util.regex.Matcher;
  */
 @Processor
 public class StyleValidator {
-
     /** Root directory of style files. Directory should include .style files in top level */
-    @ConfigItem(key = "style",
+    @ConfigItem(key = "style", input = true,
                 description = "Root directory of style files. Top level should have only .style files")
     public File styleRoot;
 
@@ -64,12 +65,11 @@ public class StyleValidator {
 
         Data data = collection.getResults();
         int passingTests = 0;
-        for (String test : data.keys("tests")) {
-            String testKey = "tests." + test.replace(".", "\\.");
-
-            if (data.get(testKey + ".passes") != null) {
-                passingTests += Integer.parseInt(data.get("tests."
-                        + test.replace(".", "\\.") + ".passes").toString());
+        for (String test : data.keys(JavaTest.TESTS)) {
+            TestResult result = collection.getResult(JavaTest.TESTS.resolve(test),
+                    TestResult.class, TestResult::of);
+            if (result != null && result.wasExecuted()) {
+                passingTests += result.getPasses();
             }
         }
         float testMarks = (passingTests / 77f) * 55;
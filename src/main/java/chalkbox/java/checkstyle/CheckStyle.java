@@ -8,6 +8,7 @@ import chalkbox.api.collections.Data;
 import chalkbox.api.common.Execution;
 import chalkbox.api.common.ProcessExecution;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.concurrent.TimeoutException;
@@ -24,10 +25,10 @@ import java.util.concurrent.TimeoutException;
  */
 @Processor
 public class CheckStyle {
-    @ConfigItem(description = "path to a checkstyle jar to execute")
+    @ConfigItem(input = true, description = "path to a checkstyle jar to execute")
     public String checkstyleJar;
 
-    @ConfigItem(description = "path to the checkstyle configuration to use when running")
+    @ConfigItem(input = true, description = "path to the checkstyle configuration to use when running")
     public String checkstyleConfig;
 
     private static final String JSON_ITEM = "checkstyle";
@@ -39,7 +40,7 @@ public class CheckStyle {
         // execute the checkstyle jar on the src directory
         ProcessExecution process;
         try {
-            process = Execution.runProcess(10000,
+            process = Execution.runProcess("checkstyle", new File("."), 10000,
                     "java", "-jar", checkstyleJar, "-c", checkstyleConfig,
                     collection.getSource().getUnmaskedPath("src"));
         } catch (IOException e) {
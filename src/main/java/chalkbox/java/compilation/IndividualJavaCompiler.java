@@ -7,11 +7,18 @@ import chalkbox.api.annotations.Processor;
 import chalkbox.api.collections.Bundle;
 import chalkbox.api.collections.Collection;
 import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+import chalkbox.api.common.java.CompilationCache;
 import chalkbox.api.common.java.Compiler;
+import chalkbox.api.files.FileLoader;
 import chalkbox.api.files.SourceFile;
+import chalkbox.api.results.CompilationResult;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -54,16 +61,25 @@ import java.util.Map;
  */
 @Processor
 public class IndividualJavaCompiler {
+    /** Path of the {@link CompilationResult} of each class, by class name */
+    public static final DataPath COMPILATION = DataPath.of("compilation");
+
     @ConfigItem(description = "Class path to use to compile submissions")
     public String classPath;
 
-    @ConfigItem(key = "solution",
+    @ConfigItem(key = "solution", input = true,
             description = "Path to a sample solution to compile submitted files with")
     public String solutionPath;
 
     @ConfigItem(key = "temp", description = "A temporary output directory")
     public String outputFolder;
 
+    @ConfigItem(key = "compilationCache", required = false,
+            description = "Directory to cache compiled classes in between runs")
+    public String cachePath;
+
+    private CompilationCache cache;
+
     /** A map of class names to the class path to compile that class with */
     private Map<String, String> classPaths = new HashMap<>();
 
@@ -78,13 +94,21 @@ public class IndividualJavaCompiler {
      * package2.ClassTwo/
      * </pre>
      *
-     * <p>The sample solution is compiled and a copy is placed within each of the
-     * directories listed above.
+     * <p>The sample solution is compiled once into a compiled/ directory and
+     * each of the directories listed above is populated with links to the
+     * compiled class files.
      *
-     * <p>For each of the directories, the class for the directory name is removed.
+     * <p>For each of the directories, the class for the directory name and
+     * all of its nested classes are excluded.
+     *
+     * <p>If a compilation cache directory is configured, the solution and
+     * each submitted file are only recompiled when their sources or class
+     * path change, see {@link CompilationCache}.
      */
     @Prior
     public void compileSolution(Map<String, String> config) {
+        cache = new CompilationCache(cachePath == null ? null : new File(cachePath));
+
         /* Load the sample solution files */
         File solutionFolder = new File(solutionPath);
         Bundle solution = new Bundle(solutionFolder);
@@ -106,7 +130,14 @@ public class IndividualJavaCompiler {
             return;
         }
 
+        /* Compile the entire solution once */
         StringWriter outStream = new StringWriter();
+        File compiled = new File(output.getUnmaskedPath("compiled"));
+        cache.compile(files, classPath, compiled.getPath(), outStream);
+
+        FileLoader loader = new FileLoader(compiled.getPath(), "", ".class");
+        List<String> classFiles = loader.loadFiles(compiled);
+
         for (String className : solution.getClasses("src")) {
             /* Create output folder for this class */
             String folder = "solution" + File.separator + className;
@@ -116,14 +147,14 @@ public class IndividualJavaCompiler {
                 continue;
             }
 
-            // TODO: really Brae, there is no need to re-compile for each file, this is pure laziness
-            Compiler.compile(files, classPath, outFolder.getPath(), outStream);
-            output.refresh();
-
-            /* Delete the file associated with the current class */
-            String targetFile = folder + File.separator + output.getPathName(className);
-            output.deleteFile(targetFile.replace(".java", ".class"));
-            output.deleteFile(targetFile.replace(".java", "$1.class"));
+            /* Link every class file except those of the current class */
+            String excluded = className.replace(".", "/");
+            try {
+                linkClasses(compiled, outFolder, classFiles, excluded);
+            } catch (IOException e) {
+                System.err.println("Unable to populate solution output directory: " + outFolder);
+                continue;
+            }
 
             /* Map the class to it's associated classpath */
             classPaths.put(className, classPath + ":" + output.getUnmaskedPath(folder));
@@ -133,6 +164,41 @@ public class IndividualJavaCompiler {
         System.out.println(outStream.toString());
     }
 
+    /**
+     * Populate a directory with the compiled class files of the sample
+     * solution, excluding a class and its nested classes.
+     *
+     * <p>Class files are hard linked where possible and copied otherwise.
+     *
+     * @param compiled The directory containing the compiled solution.
+     * @param target The directory to populate.
+     * @param classFiles Paths of class files relative to the compiled directory.
+     * @param excluded Path of the class to exclude without the .class extension.
+     * @throws IOException If a class file cannot be linked or copied.
+     */
+    private void linkClasses(File compiled, File target, List<String> classFiles,
+                             String excluded) throws IOException {
+        for (String classFile : classFiles) {
+            Path destination = target.toPath().resolve(classFile);
+
+            if (classFile.equals(excluded + ".class")
+                    || classFile.startsWith(excluded + "$")) {
+                /* Remove the class if it remains from a previous run */
+                Files.deleteIfExists(destination);
+                continue;
+            }
+
+            Path source = compiled.toPath().resolve(classFile);
+            Files.createDirectories(destination.getParent());
+            Files.deleteIfExists(destination);
+            try {
+                Files.createLink(destination, source);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(source, destination);
+            }
+        }
+    }
+
     @Pipe(stream = "submissions")
     public Collection compile(Collection submission) {
         Bundle working = submission.getWorking();
@@ -153,11 +219,10 @@ public class IndividualJavaCompiler {
         StringWriter output;
         String classPath;
         for (String file : classPaths.keySet()) {
-            /* Create JSON root, escaping any dots in the class name */
-            String jsonRoot = "compilation." + file.replace(".", "\\.") + ".";
+            /* Create JSON root, dots in the class name are kept in the segment */
+            DataPath jsonRoot = COMPILATION.resolve(file);
             if (!files.containsKey(file)) {
-                results.set(jsonRoot + "compiles", false);
-                results.set(jsonRoot + "output", "File not found");
+                submission.setResult(jsonRoot, new CompilationResult(false, "File not found"));
                 continue;
             }
 
@@ -168,14 +233,13 @@ public class IndividualJavaCompiler {
             /* Compile just the one file */
             List<SourceFile> toCompile = new ArrayList<>();
             toCompile.add(files.get(file));
-            boolean success = Compiler.compile(toCompile, classPath,
+            boolean success = cache.compile(toCompile, classPath,
                     working.getUnmaskedPath(file), output);
 
-            results.set(jsonRoot + "compiles", success);
-            results.set(jsonRoot + "output", output.toString());
+            submission.setResult(jsonRoot, new CompilationResult(success, output.toString()));
+            working.refresh(file);
         }
 
-        working.refresh();
         return submission;
     }
 
@@ -2,14 +2,20 @@ package chalkbox.java.compilation;
 
 import chalkbox.api.annotations.ConfigItem;
 import chalkbox.api.annotations.Pipe;
+import chalkbox.api.annotations.Prior;
 import chalkbox.api.annotations.Processor;
 import chalkbox.api.collections.Bundle;
 import chalkbox.api.collections.Collection;
 import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+import chalkbox.api.common.java.CompilationCache;
 import chalkbox.api.common.java.Compiler;
+import chalkbox.api.results.CompilationResult;
 
 import javax.tools.JavaFileObject;
+import java.io.File;
 import java.io.StringWriter;
+import java.util.Map;
 
 /**
  * Process to compile all of the .java source files in a submission.
@@ -34,12 +40,29 @@ import java.io.StringWriter;
  *
  * <p>A submission without any .java files will have compilation.compiles set
  * to false and compilation.output set to "Empty submission"
+ *
+ * <p>If a compilation cache directory is configured, submissions identical to
+ * a previously compiled submission reuse its compiled classes and output,
+ * see {@link CompilationCache}.
  */
 @Processor
 public class JavaCompilation {
+    /** Path of the {@link CompilationResult} of each submission */
+    public static final DataPath COMPILATION = DataPath.of("compilation");
+
     @ConfigItem(description = "Class path to use to compile submissions")
     public String classPath;
 
+    @ConfigItem(key = "compilationCache", required = false,
+            description = "Directory to cache compiled classes in between runs")
+    public String cachePath;
+
+    private CompilationCache cache;
+
+    @Prior
+    public void loadCache(Map<String, String> config) {
+        cache = new CompilationCache(cachePath == null ? null : new File(cachePath));
+    }
 
     @Pipe(stream = "submissions")
     public Collection compile(Collection submission) {
@@ -63,14 +86,11 @@ public class JavaCompilation {
         }
 
         StringWriter output = new StringWriter();
-        String classPath = submission.getSource().getUnmaskedPath() + ":" + this.classPath;
-
-        boolean success = Compiler.compile(sourceFiles, classPath,
-                working.getUnmaskedPath("bin"), output);
+        boolean success = cache.compile(sourceFiles, submission.getSource().getUnmaskedPath(),
+                classPath, working.getUnmaskedPath("bin"), output);
 
-        results.set("compilation.compiles", success);
-        results.set("compilation.output", output.toString());
-        working.refresh();
+        submission.setResult(COMPILATION, new CompilationResult(success, output.toString()));
+        working.refresh("bin");
         return submission;
     }
 }
@@ -0,0 +1,342 @@
+package chalkbox.java.conformance;
+
+import chalkbox.java.conformance.comparator.ClassModel;
+import chalkbox.java.conformance.comparator.MemberModel;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the signatures of compiled classes directly from their class files.
+ *
+ * <p>Unlike {@link SourceLoader} the classes are never defined, so they are
+ * not linked, verified or initialised and no class loader is kept for
+ * them. The public members of each class are resolved in the same way as
+ * {@link Class#getFields()} and {@link Class#getMethods()}, including the
+ * members inherited from super classes and interfaces, see {@link MemberResolver}.
+ *
+ * <p>Super classes which are not among the classes being read are read from
+ * the system class path. A super class which cannot be found is skipped
+ * rather than failing the whole class.
+ */
+public class ClassFileReader extends MemberResolver {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    /** Modifiers reported by reflection, see {@link java.lang.reflect.Modifier} */
+    private static final int CLASS_MODIFIERS = 0x7FFF & ~ACC_SUPER;
+    private static final int FIELD_MODIFIERS = 0x50DF;
+    private static final int METHOD_MODIFIERS = 0x1DFF;
+
+    private final Map<String, byte[]> classes;
+
+    /**
+     * Create a reader of classes compiled in memory or read from a directory.
+     *
+     * @param classes Map of binary class names to byte code, see
+     *                {@link chalkbox.api.common.java.ByteClassLoader#readClasses(java.io.File)}
+     */
+    public ClassFileReader(Map<String, byte[]> classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Read the signature of every class.
+     *
+     * @return Map of binary class names to class signatures.
+     * @throws IOException If a class file is malformed.
+     */
+    public Map<String, ClassModel> getClassMap() throws IOException {
+        Map<String, ClassModel> models = new HashMap<>();
+        for (String name : classes.keySet()) {
+            if (!name.endsWith("module-info")) {
+                models.put(name, resolve(name));
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Parse the class file of a class.
+     *
+     * @return The declaration of the class or null if it cannot be found.
+     */
+    @Override
+    protected DeclaredType read(String name) throws IOException {
+        byte[] bytes = classes.get(name);
+        if (bytes == null) {
+            bytes = readSystemClass(name);
+        }
+        if (bytes == null) {
+            return null;
+        }
+
+        ClassFile type;
+        try {
+            type = new ClassFile(bytes);
+        } catch (IOException | RuntimeException e) {
+            throw new IOException("Malformed class file for " + name, e);
+        }
+
+        List<MemberModel> fields = new ArrayList<>();
+        for (Member field : type.fields) {
+            if ((field.access & ACC_PUBLIC) == 0) {
+                continue;
+            }
+            fields.add(MemberModel.field(field.name, type.name,
+                    field.access & FIELD_MODIFIERS, typeName(field.descriptor),
+                    field.signature + field.descriptor));
+        }
+
+        List<MemberModel> methods = new ArrayList<>();
+        for (Member method : type.methods) {
+            if ((method.access & ACC_PUBLIC) == 0 || method.name.startsWith("<")) {
+                continue;
+            }
+            methods.add(method(type, method));
+        }
+
+        return new DeclaredType(type.modifiers(), type.isInterface(), type.signature,
+                type.superName, type.interfaces, fields, methods);
+    }
+
+    private static MemberModel method(ClassFile owner, Member member) {
+        List<String> types = splitDescriptor(member.descriptor);
+        List<String> parameters = new ArrayList<>();
+        for (String type : types.subList(0, types.size() - 1)) {
+            parameters.add(typeName(type));
+        }
+        return MemberModel.method(member.name, owner.name,
+                member.access & METHOD_MODIFIERS,
+                typeName(types.get(types.size() - 1)), parameters,
+                member.exceptions, member.signature + member.descriptor,
+                owner.isInterface() && (member.access & (ACC_ABSTRACT | ACC_STATIC)) == 0);
+    }
+
+    private static byte[] readSystemClass(String name) throws IOException {
+        String resource = name.replace('.', '/') + ".class";
+        try (InputStream stream = ClassLoader.getSystemResourceAsStream(resource)) {
+            return stream == null ? null : stream.readAllBytes();
+        }
+    }
+
+    /**
+     * Convert a field descriptor to a binary name as returned by
+     * {@link Class#getName()}, e.g. Ljava/lang/String; to java.lang.String.
+     */
+    private static String typeName(String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'Z': return "boolean";
+            case 'B': return "byte";
+            case 'C': return "char";
+            case 'S': return "short";
+            case 'I': return "int";
+            case 'J': return "long";
+            case 'F': return "float";
+            case 'D': return "double";
+            case 'V': return "void";
+            case 'L': return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+            default: return descriptor.replace('/', '.');
+        }
+    }
+
+    /**
+     * Split a method descriptor into its parameter descriptors followed by
+     * its return descriptor.
+     */
+    private static List<String> splitDescriptor(String descriptor) {
+        List<String> types = new ArrayList<>();
+        int i = 1;
+        while (i < descriptor.length()) {
+            if (descriptor.charAt(i) == ')') {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (descriptor.charAt(i) == '[') {
+                i++;
+            }
+            if (descriptor.charAt(i) == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            i++;
+            types.add(descriptor.substring(start, i));
+        }
+        return types;
+    }
+
+    /**
+     * A field or method as declared in a class file.
+     */
+    private static class Member {
+        private int access;
+        private String name;
+        private String descriptor;
+        private String signature = "";
+        private List<String> exceptions = new ArrayList<>();
+    }
+
+    /**
+     * The parts of a class file needed to resolve its public members.
+     */
+    private static class ClassFile {
+        private final Object[] constants;
+        private final int access;
+        private final String name;
+        private final String superName;
+        private final List<String> interfaces = new ArrayList<>();
+        private final List<Member> fields = new ArrayList<>();
+        private final List<Member> methods = new ArrayList<>();
+        private String signature = "";
+        private Integer innerAccess;
+
+        ClassFile(byte[] bytes) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a class file");
+            }
+            in.readUnsignedShort(); // minor version
+            in.readUnsignedShort(); // major version
+
+            constants = new Object[in.readUnsignedShort()];
+            for (int i = 1; i < constants.length; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case 1: // Utf8
+                        constants[i] = in.readUTF();
+                        break;
+                    case 7: // Class
+                        constants[i] = new ClassReference(in.readUnsignedShort());
+                        break;
+                    case 5: // Long
+                    case 6: // Double
+                        in.skipBytes(8);
+                        i++; // takes two entries
+                        break;
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                    case 18: // InvokeDynamic
+                        in.skipBytes(4);
+                        break;
+                    case 15: // MethodHandle
+                        in.skipBytes(3);
+                        break;
+                    case 8: // String
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        in.skipBytes(2);
+                        break;
+                    default:
+                        throw new IOException("Unknown constant pool tag " + tag);
+                }
+            }
+
+            access = in.readUnsignedShort();
+            int thisClass = in.readUnsignedShort();
+            name = className(thisClass);
+            int superClass = in.readUnsignedShort();
+            superName = superClass == 0 ? null : className(superClass);
+
+            int interfaceCount = in.readUnsignedShort();
+            for (int i = 0; i < interfaceCount; i++) {
+                interfaces.add(className(in.readUnsignedShort()));
+            }
+
+            readMembers(in, fields);
+            readMembers(in, methods);
+
+            int attributes = in.readUnsignedShort();
+            for (int i = 0; i < attributes; i++) {
+                String attribute = utf8(in.readUnsignedShort());
+                int length = in.readInt();
+                if (attribute.equals("Signature")) {
+                    signature = utf8(in.readUnsignedShort());
+                } else if (attribute.equals("InnerClasses")) {
+                    int classes = in.readUnsignedShort();
+                    for (int j = 0; j < classes; j++) {
+                        int inner = in.readUnsignedShort();
+                        in.readUnsignedShort(); // outer class
+                        in.readUnsignedShort(); // inner name
+                        int innerFlags = in.readUnsignedShort();
+                        if (inner == thisClass) {
+                            innerAccess = innerFlags;
+                        }
+                    }
+                } else {
+                    in.skipBytes(length);
+                }
+            }
+        }
+
+        private void readMembers(DataInputStream in, List<Member> members) throws IOException {
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                Member member = new Member();
+                member.access = in.readUnsignedShort();
+                member.name = utf8(in.readUnsignedShort());
+                member.descriptor = utf8(in.readUnsignedShort());
+
+                int attributes = in.readUnsignedShort();
+                for (int j = 0; j < attributes; j++) {
+                    String attribute = utf8(in.readUnsignedShort());
+                    int length = in.readInt();
+                    if (attribute.equals("Signature")) {
+                        member.signature = utf8(in.readUnsignedShort());
+                    } else if (attribute.equals("Exceptions")) {
+                        int exceptions = in.readUnsignedShort();
+                        for (int k = 0; k < exceptions; k++) {
+                            member.exceptions.add(className(in.readUnsignedShort()));
+                        }
+                    } else {
+                        in.skipBytes(length);
+                    }
+                }
+                members.add(member);
+            }
+        }
+
+        boolean isInterface() {
+            return (access & ACC_INTERFACE) != 0;
+        }
+
+        /**
+         * @return The modifiers of the class as reported by reflection,
+         *         which uses the inner class flags of member classes.
+         */
+        int modifiers() {
+            return (innerAccess != null ? innerAccess : access) & CLASS_MODIFIERS;
+        }
+
+        private String utf8(int index) {
+            return (String) constants[index];
+        }
+
+        private String className(int index) {
+            return utf8(((ClassReference) constants[index]).name).replace('/', '.');
+        }
+    }
+
+    private static class ClassReference {
+        private final int name;
+
+        ClassReference(int name) {
+            this.name = name;
+        }
+    }
+}
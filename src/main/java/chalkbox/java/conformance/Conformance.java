@@ -1,37 +1,57 @@
 package chalkbox.java.conformance;
 
 import chalkbox.api.annotations.ConfigItem;
+import chalkbox.api.annotations.Finish;
 import chalkbox.api.annotations.Pipe;
 import chalkbox.api.annotations.Prior;
 import chalkbox.api.annotations.Processor;
 import chalkbox.api.collections.Bundle;
 import chalkbox.api.collections.Collection;
 import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+import chalkbox.api.common.java.ByteClassLoader;
+import chalkbox.api.common.java.ClassLoadingMetrics;
 import chalkbox.api.common.java.Compiler;
 import chalkbox.api.files.FileLoader;
+import chalkbox.api.results.ConformanceResult;
 import chalkbox.java.compilation.JavaCompilation;
 import chalkbox.java.conformance.comparator.ClassComparator;
+import chalkbox.java.conformance.comparator.ClassModel;
 import chalkbox.java.conformance.comparator.CodeComparator;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @Processor(depends = {JavaCompilation.class})
 public class Conformance {
-    @ConfigItem(description = "The location of files to use for conformance checking")
+    /** Path of the {@link ConformanceResult} of each class, by class name */
+    public static final DataPath CONFORMANCE = DataPath.of("conformance");
+    /** Path of the class loading metrics, apart from the results of each class */
+    public static final DataPath METRICS = DataPath.of("metrics").resolve("conformance");
+
+    @ConfigItem(input = true, description = "The location of files to use for conformance checking")
     public String conformance;
 
-    @ConfigItem(description = "The expected file structure for the assignment")
+    @ConfigItem(input = true, description = "The expected file structure for the assignment")
     public String structure;
 
     @ConfigItem
     public String classPath;
 
-    private Map<String, Class> expectedClasses;
+    @ConfigItem(required = false,
+            description = "Read class files directly rather than loading the classes")
+    public boolean bytecode = false;
+
+    @ConfigItem(required = false,
+            description = "Record the classes loaded and metaspace used after each submission")
+    public boolean metrics = false;
+
+    private Map<String, ClassModel> expectedClasses;
     private List<String> expectedFiles;
 
     /**
@@ -41,23 +61,19 @@ public class Conformance {
     public void loadExpected(Map<String, String> config) throws IOException {
         Bundle expected = new Bundle(new File(conformance));
         StringWriter output = new StringWriter();
-
-        /* Load output directories for the solution and the tests */
-        Bundle out;
-        try {
-            out = new Bundle();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return;
-        }
+        Map<String, byte[]> classes = new HashMap<>();
 
         /* Compile the sample solution */
         Compiler.compile(Compiler.getSourceFiles(expected), classPath,
-                out.getUnmaskedPath(), output);
+                classes, output);
+
+        if (bytecode) {
+            expectedClasses = new ClassFileReader(classes).getClassMap();
+            return;
+        }
 
-        SourceLoader expectedLoader = new SourceLoader(out.getUnmaskedPath());
         try {
-            expectedClasses = expectedLoader.getClassMap();
+            expectedClasses = new SourceLoader(classes).getModelMap();
         } catch (ClassNotFoundException cnf) {
             throw new RuntimeException("Failed to load expected class");
         }
@@ -100,11 +116,9 @@ public class Conformance {
             return submission;
         }
 
-        SourceLoader submissionLoader = new SourceLoader(submission.getWorking()
-                .getUnmaskedPath("bin"));
-        Map<String, Class> submissionMap;
+        Map<String, ClassModel> submissionMap;
         try {
-            submissionMap = submissionLoader.getClassMap();
+            submissionMap = loadSubmission(submission);
         } catch (ClassNotFoundException|NoClassDefFoundError cnf) {
             data.set("conformance.error", "Unable to find a class - consult a tutor");
             cnf.printStackTrace();
@@ -117,22 +131,44 @@ public class Conformance {
                 continue;
             }
 
-            String jsonKey = "conformance." + className.replace(".", "\\.") + ".";
-            Class expectedClass = expectedClasses.get(className);
-            Class actualClass = submissionMap.get(className);
+            DataPath jsonKey = CONFORMANCE.resolve(className);
+            ClassModel expectedClass = expectedClasses.get(className);
+            ClassModel actualClass = submissionMap.get(className);
 
             if (expectedClass == null || actualClass == null) {
-                data.set(jsonKey + "differs", true);
-                data.set(jsonKey + "output", "Unable to load class");
+                submission.setResult(jsonKey,
+                        new ConformanceResult(true, "Unable to load class"));
                 continue;
             }
 
-            CodeComparator<Class> comparator = new ClassComparator(expectedClass,
+            CodeComparator<ClassModel> comparator = new ClassComparator(expectedClass,
                     actualClass);
-            data.set(jsonKey + "differs", comparator.hasDifference());
-            data.set(jsonKey + "output", comparator.toString());
+            submission.setResult(jsonKey,
+                    new ConformanceResult(comparator.hasDifference(), comparator.toString()));
         }
 
+        if (metrics) {
+            ClassLoadingMetrics.snapshot().set(data, METRICS);
+        }
         return submission;
     }
+
+    private Map<String, ClassModel> loadSubmission(Collection submission)
+            throws IOException, ClassNotFoundException {
+        String bin = submission.getWorking().getUnmaskedPath("bin");
+        if (bytecode) {
+            return new ClassFileReader(ByteClassLoader.readClasses(new File(bin)))
+                    .getClassMap();
+        }
+
+        /* Only the models are kept, so the loader can be unloaded once they are built */
+        return new SourceLoader(bin).getModelMap();
+    }
+
+    @Finish
+    public void reportMetrics() {
+        if (metrics) {
+            System.err.println("Conformance class loading: " + ClassLoadingMetrics.snapshot());
+        }
+    }
 }
@@ -0,0 +1,240 @@
+package chalkbox.java.conformance;
+
+import chalkbox.java.conformance.comparator.ClassModel;
+import chalkbox.java.conformance.comparator.MemberModel;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the public members of classes read without loading them,
+ * including the members inherited from super classes and interfaces, in the
+ * same way as {@link Class#getFields()} and {@link Class#getMethods()}.
+ */
+abstract class MemberResolver {
+    /** Declarations of java.* classes, which are loaded rather than read */
+    private static final Map<String, DeclaredType> JAVA = new ConcurrentHashMap<>();
+
+    private final Map<String, DeclaredType> declared = new HashMap<>();
+    private final Map<String, List<MemberModel>> methods = new HashMap<>();
+
+    /**
+     * Read the declaration of a class.
+     *
+     * @param name Binary name of the class.
+     * @return The declaration or null if the class cannot be found.
+     * @throws IOException If the class cannot be read.
+     */
+    protected abstract DeclaredType read(String name) throws IOException;
+
+    /**
+     * Get the declaration of a class, read once per class.
+     *
+     * <p>The members of java.* classes are never compared, but they still
+     * hide or override members of other classes, so java.* classes are
+     * loaded from the platform instead.
+     */
+    DeclaredType declaration(String name) throws IOException {
+        if (name.startsWith("java.")) {
+            return JAVA.computeIfAbsent(name, MemberResolver::platform);
+        }
+        if (declared.containsKey(name)) {
+            return declared.get(name);
+        }
+        DeclaredType type = read(name);
+        declared.put(name, type);
+        return type;
+    }
+
+    private static DeclaredType platform(String name) {
+        Class<?> type;
+        try {
+            type = Class.forName(name, false, ClassLoader.getPlatformClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+
+        List<MemberModel> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isPublic(field.getModifiers())) {
+                fields.add(MemberModel.of(field));
+            }
+        }
+        List<MemberModel> methods = new ArrayList<>();
+        for (Method method : type.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers())) {
+                methods.add(MemberModel.of(method));
+            }
+        }
+
+        List<String> interfaces = new ArrayList<>();
+        for (Class<?> superInterface : type.getInterfaces()) {
+            interfaces.add(superInterface.getName());
+        }
+        return new DeclaredType(type.getModifiers(), type.isInterface(), "",
+                type.getSuperclass() == null ? null : type.getSuperclass().getName(),
+                interfaces, fields, methods);
+    }
+
+    /**
+     * Resolve the signature of a class.
+     *
+     * @param name Binary name of the class.
+     * @return The model of the class or null if it cannot be found.
+     */
+    ClassModel resolve(String name) throws IOException {
+        DeclaredType type = declaration(name);
+        if (type == null) {
+            return null;
+        }
+        return new ClassModel(name, type.modifiers, type.isInterface, type.generic,
+                fields(name, new HashSet<>()), methods(name), null);
+    }
+
+    /**
+     * Get the public fields of a class, as {@link Class#getFields()}: the
+     * declared fields, then fields of the super interfaces and then the
+     * fields of the super class.
+     */
+    private List<MemberModel> fields(String name, Set<String> interfaces) throws IOException {
+        DeclaredType type = declaration(name);
+        if (type == null) {
+            return new ArrayList<>();
+        }
+
+        List<MemberModel> result = new ArrayList<>(type.fields);
+        for (String superInterface : type.interfaces) {
+            if (interfaces.add(superInterface)) {
+                result.addAll(fields(superInterface, interfaces));
+            }
+        }
+        if (type.superName != null && !type.isInterface) {
+            result.addAll(fields(type.superName, interfaces));
+        }
+        return result;
+    }
+
+    /**
+     * Get the public methods of a class, as {@link Class#getMethods()}: the
+     * declared methods, the methods of the super class and the non-static
+     * methods of the super interfaces, keeping only the most specific of
+     * methods with the same name, parameters and return type.
+     */
+    private List<MemberModel> methods(String name) throws IOException {
+        List<MemberModel> result = methods.get(name);
+        if (result != null) {
+            return result;
+        }
+
+        result = new ArrayList<>();
+        DeclaredType type = declaration(name);
+        if (type == null) {
+            return result;
+        }
+
+        for (MemberModel method : type.methods) {
+            merge(result, method);
+        }
+        if (type.superName != null && !type.isInterface) {
+            for (MemberModel method : methods(type.superName)) {
+                merge(result, method);
+            }
+        }
+        for (String superInterface : type.interfaces) {
+            for (MemberModel method : methods(superInterface)) {
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    merge(result, method);
+                }
+            }
+        }
+
+        methods.put(name, result);
+        return result;
+    }
+
+    private void merge(List<MemberModel> methods, MemberModel method) throws IOException {
+        for (int i = 0; i < methods.size(); i++) {
+            MemberModel existing = methods.get(i);
+            if (!existing.getName().equals(method.getName())
+                    || !existing.getParameterTypes().equals(method.getParameterTypes())
+                    || !existing.getType().equals(method.getType())) {
+                continue;
+            }
+
+            /* Class methods are more specific than interface methods */
+            if (!isInterface(existing.getDeclaringClass())) {
+                return;
+            }
+            if (!isInterface(method.getDeclaringClass())
+                    || isSubInterface(method.getDeclaringClass(), existing.getDeclaringClass())) {
+                methods.set(i, method);
+                return;
+            }
+            if (isSubInterface(existing.getDeclaringClass(), method.getDeclaringClass())) {
+                return;
+            }
+        }
+        methods.add(method);
+    }
+
+    private boolean isInterface(String name) throws IOException {
+        DeclaredType type = declaration(name);
+        return type != null && type.isInterface;
+    }
+
+    private boolean isSubInterface(String name, String superInterface) throws IOException {
+        DeclaredType type = declaration(name);
+        if (type == null) {
+            return false;
+        }
+        for (String parent : type.interfaces) {
+            if (parent.equals(superInterface) || isSubInterface(parent, superInterface)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A class along with only the public members it declares.
+     */
+    static class DeclaredType {
+        final int modifiers;
+        final boolean isInterface;
+        final String generic;
+        final String superName;
+        final List<String> interfaces;
+        final List<MemberModel> fields;
+        final List<MemberModel> methods;
+
+        /**
+         * @param modifiers Modifiers of the class, as {@link Class#getModifiers()}.
+         * @param isInterface Whether the class is an interface.
+         * @param generic Generic signature of the class, or an empty string.
+         * @param superName Binary name of the super class, or null.
+         * @param interfaces Binary names of the direct super interfaces.
+         * @param fields Public fields declared by the class.
+         * @param methods Public methods declared by the class.
+         */
+        DeclaredType(int modifiers, boolean isInterface, String generic, String superName,
+                     List<String> interfaces, List<MemberModel> fields,
+                     List<MemberModel> methods) {
+            this.modifiers = modifiers;
+            this.isInterface = isInterface;
+            this.generic = generic;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.fields = fields;
+            this.methods = methods;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package chalkbox.java.conformance;
 
 import chalkbox.api.files.FileLoader;
+import chalkbox.java.conformance.comparator.ClassModel;
 
 import java.io.File;
 import java.io.IOException;
@@ -10,9 +11,22 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class SourceLoader extends ClassLoader {
+/**
+ * Loads the classes of a single compilation, such as a sample solution or
+ * a submission.
+ *
+ * <p>A loader and every class it defines can only be unloaded once none of
+ * them are referenced, so a loader should be closed as soon as its classes
+ * have been modelled, see {@link chalkbox.java.conformance.comparator.ClassModel#of(Class)}.
+ * Closing drops the byte code held by the loader and stops it defining
+ * further classes; classes already loaded remain usable.
+ */
+public class SourceLoader extends ClassLoader implements AutoCloseable {
     private File classDirectory;
     private List<String> files;
+    /** Byte code of classes compiled in memory, null if loading from a directory */
+    private Map<String, byte[]> classes;
+    private volatile boolean closed = false;
 
     public SourceLoader(String classDirectory) throws IOException {
         File file = new File(classDirectory);
@@ -31,6 +45,17 @@ public class SourceLoader extends ClassLoader {
         }
     }
 
+    /**
+     * Create a loader for classes compiled in memory.
+     *
+     * @param classes Map of binary class names to byte code, see
+     *                {@link chalkbox.api.common.java.Compiler#compile(Iterable, String, Map, java.io.StringWriter)}
+     */
+    public SourceLoader(Map<String, byte[]> classes) {
+        this.classes = classes;
+        this.files = new ArrayList<>(classes.keySet());
+    }
+
     public List<String> getSourceFiles() {
         return files;
     }
@@ -48,6 +73,22 @@ public class SourceLoader extends ClassLoader {
                 + className.replace(".", File.separator) + ".class");
     }
 
+    /**
+     * Load the classes and model their signatures, closing the loader once
+     * they are modelled.
+     *
+     * @return Map of binary class names to class signatures.
+     */
+    public Map<String, ClassModel> getModelMap() throws ClassNotFoundException {
+        try (this) {
+            Map<String, ClassModel> models = new HashMap<>();
+            for (String file : files) {
+                models.put(file, ClassModel.of(loadClass(file)));
+            }
+            return models;
+        }
+    }
+
     @Override
     public Class loadClass(String name) throws ClassNotFoundException {
         Class<?> loadedClass = findLoadedClass(name);
@@ -55,9 +96,13 @@ public class SourceLoader extends ClassLoader {
         if (loadedClass != null || !files.contains(name)) {
             return super.loadClass(name);
         }
+        if (closed) {
+            throw new ClassNotFoundException(name + " requested after its loader was closed");
+        }
 
         try {
-            byte[] classData = Files.readAllBytes(getFile(name).toPath());
+            byte[] classData = classes != null ? classes.get(name)
+                    : Files.readAllBytes(getFile(name).toPath());
 
             return defineClass(name,
                     classData, 0, classData.length);
@@ -68,4 +113,10 @@ public class SourceLoader extends ClassLoader {
 
         return null;
     }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        classes = null;
+    }
 }
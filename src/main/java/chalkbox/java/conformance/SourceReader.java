@@ -0,0 +1,825 @@
+package chalkbox.java.conformance;
+
+import chalkbox.api.files.SourceFile;
+import chalkbox.java.conformance.comparator.ClassModel;
+import chalkbox.java.conformance.comparator.MemberModel;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.AnnotationDeclaration;
+import com.github.javaparser.ast.body.AnnotationMemberDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.ReferenceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.TypeParameter;
+
+import java.io.IOException;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the signatures of classes directly from their java source files.
+ *
+ * <p>Nothing is compiled or loaded, so a submission which does not compile
+ * can still be compared, as long as each file parses. Files which cannot be
+ * parsed are skipped and reported by {@link #getProblems()}.
+ *
+ * <p>Type names are resolved without a compiler from the classes being
+ * read, the imports of each file and the system class path, and generic
+ * types are erased to their first bound. The implicit modifiers of
+ * interface, enum and annotation members and the implicit methods of enums
+ * are added as the compiler would, as are the bridge methods generated for
+ * overrides with a different erasure to the method they override. Only
+ * source the parser supports can be read, e.g. records and var declarations
+ * cannot.
+ */
+public class SourceReader extends MemberResolver {
+    private static final int BRIDGE = 0x40;
+    private static final int VARARGS = 0x80;
+    private static final int SYNTHETIC = 0x1000;
+    private static final int ANNOTATION = 0x2000;
+    private static final int ENUM = 0x4000;
+    private static final String OBJECT = "java.lang.Object";
+
+    private final Map<String, Declaration> types = new LinkedHashMap<>();
+    private final Map<String, String> problems = new LinkedHashMap<>();
+    private final Map<String, Boolean> known = new HashMap<>();
+
+    /**
+     * Parse java source files.
+     *
+     * @param files The java source files to read.
+     * @throws IOException If a source file cannot be read.
+     */
+    public SourceReader(List<SourceFile> files) throws IOException {
+        for (SourceFile file : files) {
+            CompilationUnit unit;
+            try {
+                unit = JavaParser.parse(file.getContent());
+            } catch (ParseProblemException problem) {
+                problems.put(file.getName(), problem.getMessage());
+                continue;
+            }
+
+            String packageName = unit.getPackageDeclaration()
+                    .map(declaration -> declaration.getNameAsString() + ".")
+                    .orElse("");
+            for (TypeDeclaration<?> type : unit.getTypes()) {
+                index(unit, null, packageName + type.getNameAsString(), type);
+            }
+        }
+    }
+
+    private void index(CompilationUnit unit, Declaration outer, String name,
+                       TypeDeclaration<?> type) {
+        Declaration declaration = new Declaration(unit, outer, name, type);
+        types.put(name, declaration);
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof TypeDeclaration) {
+                TypeDeclaration<?> nested = (TypeDeclaration<?>) member;
+                index(unit, declaration, name + "$" + nested.getNameAsString(), nested);
+            }
+        }
+    }
+
+    /**
+     * Read the signature of every class.
+     *
+     * @return Map of binary class names to class signatures.
+     * @throws IOException If a class on the system class path cannot be read.
+     */
+    public Map<String, ClassModel> getClassMap() throws IOException {
+        Map<String, ClassModel> models = new HashMap<>();
+        for (String name : types.keySet()) {
+            models.put(name, resolve(name));
+        }
+        return models;
+    }
+
+    /**
+     * @return Messages explaining why each file which could not be parsed
+     *         failed, by file name.
+     */
+    public Map<String, String> getProblems() {
+        return Collections.unmodifiableMap(problems);
+    }
+
+    @Override
+    protected DeclaredType read(String name) {
+        Declaration declaration = types.get(name);
+        if (declaration == null) {
+            return null;
+        }
+
+        TypeDeclaration<?> type = declaration.type;
+        Map<String, String> variables = typeVariables(declaration);
+        boolean isInterface = type instanceof AnnotationDeclaration
+                || (type instanceof ClassOrInterfaceDeclaration
+                    && ((ClassOrInterfaceDeclaration) type).isInterface());
+
+        String superName = isInterface ? null : OBJECT;
+        List<String> interfaces = new ArrayList<>();
+        String generic = "";
+        if (type instanceof ClassOrInterfaceDeclaration) {
+            ClassOrInterfaceDeclaration clazz = (ClassOrInterfaceDeclaration) type;
+            generic = clazz.getTypeParameters().toString();
+            for (ClassOrInterfaceType extended : clazz.getExtendedTypes()) {
+                if (isInterface) {
+                    interfaces.add(typeName(extended, declaration, variables));
+                } else {
+                    superName = typeName(extended, declaration, variables);
+                }
+            }
+            for (ClassOrInterfaceType implemented : clazz.getImplementedTypes()) {
+                interfaces.add(typeName(implemented, declaration, variables));
+            }
+        } else if (type instanceof EnumDeclaration) {
+            superName = "java.lang.Enum";
+            for (ClassOrInterfaceType implemented
+                    : ((EnumDeclaration) type).getImplementedTypes()) {
+                interfaces.add(typeName(implemented, declaration, variables));
+            }
+        }
+
+        List<MemberModel> fields = new ArrayList<>();
+        List<MemberModel> methods = new ArrayList<>();
+        if (type instanceof EnumDeclaration) {
+            enumMembers(name, (EnumDeclaration) type, fields, methods);
+        }
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof FieldDeclaration) {
+                field(declaration, variables, isInterface, (FieldDeclaration) member, fields);
+            } else if (member instanceof MethodDeclaration) {
+                method(declaration, variables, isInterface, (MethodDeclaration) member, methods);
+            } else if (member instanceof AnnotationMemberDeclaration) {
+                AnnotationMemberDeclaration annotation = (AnnotationMemberDeclaration) member;
+                methods.add(MemberModel.method(annotation.getNameAsString(), name,
+                        Modifier.PUBLIC | Modifier.ABSTRACT,
+                        typeName(annotation.getType(), declaration, variables),
+                        new ArrayList<>(), new ArrayList<>(),
+                        annotation.getType().toString(), false));
+            }
+        }
+
+        boolean hasAbstractMethods = false;
+        if (!(type instanceof AnnotationDeclaration)) {
+            List<Inherited> inherited = inherited(declaration, variables);
+            hasAbstractMethods = hasAbstractMethods(declaration, methods, inherited);
+            bridges(declaration, isInterface, methods, inherited);
+        }
+
+        return new DeclaredType(classModifiers(declaration, hasAbstractMethods), isInterface,
+                generic, superName, interfaces, fields, methods);
+    }
+
+    private void field(Declaration declaration, Map<String, String> variables,
+                       boolean isInterface, FieldDeclaration field,
+                       List<MemberModel> fields) {
+        int modifiers = modifiers(field.getModifiers());
+        if (isInterface) {
+            modifiers |= Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL;
+        }
+        if (!Modifier.isPublic(modifiers)) {
+            return;
+        }
+
+        for (VariableDeclarator variable : field.getVariables()) {
+            fields.add(MemberModel.field(variable.getNameAsString(), declaration.name,
+                    modifiers, typeName(variable.getType(), declaration, variables),
+                    variable.getType().toString()));
+        }
+    }
+
+    private void method(Declaration declaration, Map<String, String> classVariables,
+                        boolean isInterface, MethodDeclaration method,
+                        List<MemberModel> methods) {
+        int modifiers = modifiers(method.getModifiers());
+        boolean isDefault = false;
+        if (isInterface && !Modifier.isPrivate(modifiers)) {
+            modifiers |= Modifier.PUBLIC;
+            if (!method.getBody().isPresent() && !Modifier.isStatic(modifiers)) {
+                modifiers |= Modifier.ABSTRACT;
+            }
+            isDefault = method.isDefault();
+        }
+        if (!Modifier.isPublic(modifiers)) {
+            return;
+        }
+
+        Map<String, String> variables = new HashMap<>(classVariables);
+        addTypeVariables(method.getTypeParameters(), declaration, variables);
+        for (Parameter parameter : method.getParameters()) {
+            if (parameter.isVarArgs()) {
+                modifiers |= VARARGS;
+            }
+        }
+
+        methods.add(MemberModel.method(method.getNameAsString(), declaration.name,
+                modifiers, typeName(method.getType(), declaration, variables),
+                parameterTypes(method, declaration, variables),
+                exceptionTypes(method, declaration, variables),
+                method.getDeclarationAsString(false, true, true), isDefault));
+    }
+
+    private List<String> parameterTypes(MethodDeclaration method, Declaration declaration,
+                                        Map<String, String> variables) {
+        List<String> parameters = new ArrayList<>();
+        for (Parameter parameter : method.getParameters()) {
+            String parameterType = typeName(parameter.getType(), declaration, variables);
+            if (parameter.isVarArgs()) {
+                parameterType = "[" + descriptor(parameterType);
+            }
+            parameters.add(parameterType);
+        }
+        return parameters;
+    }
+
+    private List<String> exceptionTypes(MethodDeclaration method, Declaration declaration,
+                                        Map<String, String> variables) {
+        List<String> exceptions = new ArrayList<>();
+        for (ReferenceType exception : method.getThrownExceptions()) {
+            exceptions.add(typeName(exception, declaration, variables));
+        }
+        return exceptions;
+    }
+
+    /**
+     * Add the bridge methods the compiler generates for the declared methods
+     * which override a method with a different erasure, e.g. a covariant
+     * return type or a parameter of a type variable of the super type.
+     *
+     * <p>Bridges are only generated for overriding methods, a class which
+     * inherits an implementation of an interface method from its super class
+     * is not given a bridge.
+     */
+    private void bridges(Declaration declaration, boolean isInterface,
+                         List<MemberModel> methods, List<Inherited> inherited) {
+        Set<String> erasures = new HashSet<>();
+        for (MemberModel method : methods) {
+            erasures.add(method.getName() + method.getParameterTypes() + method.getType());
+        }
+
+        for (MemberModel method : new ArrayList<>(methods)) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            for (Inherited overridden : inherited) {
+                if (!overridden.name.equals(method.getName())
+                        || !overridden.parameters.equals(method.getParameterTypes())
+                        || !erasures.add(overridden.name + overridden.erasedParameters
+                            + overridden.erasedType)) {
+                    continue;
+                }
+                int modifiers = (method.getModifiers()
+                        & (Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE))
+                        | BRIDGE | SYNTHETIC;
+                methods.add(MemberModel.method(method.getName(), declaration.name, modifiers,
+                        overridden.erasedType, overridden.erasedParameters,
+                        overridden.exceptions, overridden.erasedType + " " + overridden.name
+                            + overridden.erasedParameters, isInterface));
+            }
+        }
+    }
+
+    /**
+     * @return Whether a class declares an abstract method or inherits an
+     *         abstract method which it does not implement.
+     */
+    private static boolean hasAbstractMethods(Declaration declaration,
+                                              List<MemberModel> methods,
+                                              List<Inherited> inherited) {
+        for (BodyDeclaration<?> member : declaration.type.getMembers()) {
+            if (member instanceof MethodDeclaration
+                    && ((MethodDeclaration) member).isAbstract()) {
+                return true;
+            }
+        }
+
+        Set<String> implemented = new HashSet<>();
+        for (MemberModel method : methods) {
+            implemented.add(method.getName() + method.getParameterTypes());
+        }
+        for (Inherited method : inherited) {
+            if (!method.isAbstract) {
+                implemented.add(method.name + method.parameters);
+            }
+        }
+        for (Inherited method : inherited) {
+            if (method.isAbstract && !implemented.contains(method.name + method.parameters)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the methods a class inherits from all of its super types, with the
+     * type arguments the class gives each super type substituted.
+     */
+    private List<Inherited> inherited(Declaration declaration, Map<String, String> variables) {
+        List<Inherited> inherited = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        for (Map.Entry<String, List<String>> superType
+                : superTypes(declaration, variables).entrySet()) {
+            inherit(superType.getKey(), superType.getValue(), inherited, visited);
+        }
+        return inherited;
+    }
+
+    /**
+     * @return The erasure of the type arguments given to each direct super
+     *         type of a class, by the binary name of the super type.
+     */
+    private Map<String, List<String>> superTypes(Declaration declaration,
+                                                 Map<String, String> variables) {
+        TypeDeclaration<?> type = declaration.type;
+        Map<String, List<String>> superTypes = new LinkedHashMap<>();
+        List<ClassOrInterfaceType> declared = new ArrayList<>();
+        if (type instanceof ClassOrInterfaceDeclaration) {
+            ClassOrInterfaceDeclaration clazz = (ClassOrInterfaceDeclaration) type;
+            if (!clazz.isInterface() && clazz.getExtendedTypes().isEmpty()) {
+                superTypes.put(OBJECT, new ArrayList<>());
+            }
+            declared.addAll(clazz.getExtendedTypes());
+            declared.addAll(clazz.getImplementedTypes());
+        } else if (type instanceof EnumDeclaration) {
+            superTypes.put("java.lang.Enum", List.of(declaration.name));
+            declared.addAll(((EnumDeclaration) type).getImplementedTypes());
+        }
+
+        for (ClassOrInterfaceType superType : declared) {
+            List<String> arguments = new ArrayList<>();
+            for (Type argument : superType.getTypeArguments().orElse(new NodeList<>())) {
+                arguments.add(typeName(argument, declaration, variables));
+            }
+            superTypes.put(typeName(superType, declaration, variables), arguments);
+        }
+        return superTypes;
+    }
+
+    /**
+     * Add the methods of a super type and its own super types which can be
+     * overridden.
+     *
+     * @param name Binary name of the super type.
+     * @param arguments Erasure of the type arguments given to the super type.
+     */
+    private void inherit(String name, List<String> arguments, List<Inherited> inherited,
+                         Set<String> visited) {
+        if (!visited.add(name)) {
+            return;
+        }
+        Declaration declaration = types.get(name);
+        if (declaration == null) {
+            if (name.startsWith("java.")) {
+                inheritPlatform(name, arguments, inherited, visited);
+            }
+            return;
+        }
+
+        Map<String, String> erased = typeVariables(declaration);
+        Map<String, String> substituted = new HashMap<>(erased);
+        if (declaration.type instanceof ClassOrInterfaceDeclaration) {
+            NodeList<TypeParameter> parameters =
+                    ((ClassOrInterfaceDeclaration) declaration.type).getTypeParameters();
+            for (int i = 0; i < parameters.size() && i < arguments.size(); i++) {
+                substituted.put(parameters.get(i).getNameAsString(), arguments.get(i));
+            }
+        }
+        boolean isInterface = declaration.type instanceof ClassOrInterfaceDeclaration
+                && ((ClassOrInterfaceDeclaration) declaration.type).isInterface();
+
+        for (BodyDeclaration<?> member : declaration.type.getMembers()) {
+            if (!(member instanceof MethodDeclaration)) {
+                continue;
+            }
+            MethodDeclaration method = (MethodDeclaration) member;
+            if (method.isStatic() || method.isPrivate()) {
+                continue;
+            }
+            Map<String, String> erasedVariables = new HashMap<>(erased);
+            addTypeVariables(method.getTypeParameters(), declaration, erasedVariables);
+            Map<String, String> substitutedVariables = new HashMap<>(substituted);
+            addTypeVariables(method.getTypeParameters(), declaration, substitutedVariables);
+
+            inherited.add(new Inherited(method.getNameAsString(),
+                    isInterface ? !method.getBody().isPresent() : method.isAbstract(),
+                    parameterTypes(method, declaration, substitutedVariables),
+                    parameterTypes(method, declaration, erasedVariables),
+                    typeName(method.getType(), declaration, erasedVariables),
+                    exceptionTypes(method, declaration, erasedVariables)));
+        }
+
+        for (Map.Entry<String, List<String>> superType
+                : superTypes(declaration, substituted).entrySet()) {
+            inherit(superType.getKey(), superType.getValue(), inherited, visited);
+        }
+    }
+
+    private void inheritPlatform(String name, List<String> arguments,
+                                 List<Inherited> inherited, Set<String> visited) {
+        Class<?> type;
+        try {
+            type = Class.forName(name, false, ClassLoader.getPlatformClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return;
+        }
+
+        Map<String, String> substituted = new HashMap<>();
+        TypeVariable<?>[] parameters = type.getTypeParameters();
+        for (int i = 0; i < parameters.length && i < arguments.size(); i++) {
+            substituted.put(parameters[i].getName(), arguments.get(i));
+        }
+
+        for (Method method : type.getDeclaredMethods()) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers)
+                    || method.isSynthetic()) {
+                continue;
+            }
+            /* Type variables of the method hide those of the class */
+            Map<String, String> variables = new HashMap<>(substituted);
+            for (TypeVariable<?> variable : method.getTypeParameters()) {
+                variables.remove(variable.getName());
+            }
+
+            List<String> parameterTypes = new ArrayList<>();
+            for (java.lang.reflect.Type parameter : method.getGenericParameterTypes()) {
+                parameterTypes.add(erasure(parameter, variables));
+            }
+            List<String> erasedParameters = new ArrayList<>();
+            for (Class<?> parameter : method.getParameterTypes()) {
+                erasedParameters.add(parameter.getName());
+            }
+            List<String> exceptions = new ArrayList<>();
+            for (Class<?> exception : method.getExceptionTypes()) {
+                exceptions.add(exception.getName());
+            }
+            inherited.add(new Inherited(method.getName(), Modifier.isAbstract(modifiers),
+                    parameterTypes, erasedParameters, method.getReturnType().getName(),
+                    exceptions));
+        }
+
+        List<java.lang.reflect.Type> superTypes = new ArrayList<>();
+        if (type.getGenericSuperclass() != null) {
+            superTypes.add(type.getGenericSuperclass());
+        }
+        superTypes.addAll(List.of(type.getGenericInterfaces()));
+        for (java.lang.reflect.Type superType : superTypes) {
+            List<String> superArguments = new ArrayList<>();
+            if (superType instanceof ParameterizedType) {
+                for (java.lang.reflect.Type argument
+                        : ((ParameterizedType) superType).getActualTypeArguments()) {
+                    superArguments.add(erasure(argument, substituted));
+                }
+            }
+            inherit(erasure(superType, substituted), superArguments, inherited, visited);
+        }
+    }
+
+    /**
+     * Erase a type of a platform class to a binary name, substituting the
+     * erasure of the type arguments given to its type variables.
+     */
+    private static String erasure(java.lang.reflect.Type type, Map<String, String> variables) {
+        if (type instanceof Class) {
+            return ((Class<?>) type).getName();
+        }
+        if (type instanceof ParameterizedType) {
+            return erasure(((ParameterizedType) type).getRawType(), variables);
+        }
+        if (type instanceof GenericArrayType) {
+            return "[" + descriptor(erasure(
+                    ((GenericArrayType) type).getGenericComponentType(), variables));
+        }
+        if (type instanceof TypeVariable) {
+            TypeVariable<?> variable = (TypeVariable<?>) type;
+            String argument = variables.get(variable.getName());
+            return argument != null ? argument : erasure(variable.getBounds()[0], variables);
+        }
+        if (type instanceof WildcardType) {
+            return erasure(((WildcardType) type).getUpperBounds()[0], variables);
+        }
+        return OBJECT;
+    }
+
+    /**
+     * Add the constants of an enum and the values and valueOf methods
+     * generated for every enum.
+     */
+    private static void enumMembers(String name, EnumDeclaration type,
+                                    List<MemberModel> fields, List<MemberModel> methods) {
+        int constant = Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL | ENUM;
+        for (EnumConstantDeclaration entry : type.getEntries()) {
+            fields.add(MemberModel.field(entry.getNameAsString(), name, constant, name, name));
+        }
+
+        int generated = Modifier.PUBLIC | Modifier.STATIC;
+        methods.add(MemberModel.method("values", name, generated, "[L" + name + ";",
+                new ArrayList<>(), new ArrayList<>(), "values()", false));
+        List<String> valueOf = new ArrayList<>();
+        valueOf.add("java.lang.String");
+        methods.add(MemberModel.method("valueOf", name, generated, name,
+                valueOf, new ArrayList<>(), "valueOf(String)", false));
+    }
+
+    /**
+     * @return The modifiers of a class as reported by reflection, including
+     *         the modifiers implied by the kind of class and where it is
+     *         declared.
+     */
+    private static int classModifiers(Declaration declaration, boolean hasAbstractMethods) {
+        TypeDeclaration<?> type = declaration.type;
+        int modifiers = modifiers(type.getModifiers());
+
+        if (type instanceof AnnotationDeclaration) {
+            modifiers |= Modifier.INTERFACE | Modifier.ABSTRACT | ANNOTATION;
+        } else if (type instanceof ClassOrInterfaceDeclaration
+                && ((ClassOrInterfaceDeclaration) type).isInterface()) {
+            modifiers |= Modifier.INTERFACE | Modifier.ABSTRACT;
+        } else if (type instanceof EnumDeclaration) {
+            modifiers |= ENUM;
+            boolean bodies = false;
+            for (EnumConstantDeclaration entry : ((EnumDeclaration) type).getEntries()) {
+                bodies = bodies || !entry.getClassBody().isEmpty();
+            }
+            /* Constants with bodies are subclasses, which must implement any abstract methods */
+            if (!bodies) {
+                modifiers |= Modifier.FINAL;
+            } else if (hasAbstractMethods) {
+                modifiers |= Modifier.ABSTRACT;
+            }
+        }
+
+        if (declaration.outer != null) {
+            TypeDeclaration<?> outer = declaration.outer.type;
+            boolean outerInterface = outer instanceof AnnotationDeclaration
+                    || (outer instanceof ClassOrInterfaceDeclaration
+                        && ((ClassOrInterfaceDeclaration) outer).isInterface());
+            if (outerInterface) {
+                modifiers |= Modifier.PUBLIC | Modifier.STATIC;
+            }
+            if ((modifiers & (Modifier.INTERFACE | ENUM)) != 0) {
+                modifiers |= Modifier.STATIC;
+            }
+        }
+        return modifiers;
+    }
+
+    private static int modifiers(EnumSet<com.github.javaparser.ast.Modifier> modifiers) {
+        int result = 0;
+        for (com.github.javaparser.ast.Modifier modifier : modifiers) {
+            switch (modifier) {
+                case PUBLIC: result |= Modifier.PUBLIC; break;
+                case PROTECTED: result |= Modifier.PROTECTED; break;
+                case PRIVATE: result |= Modifier.PRIVATE; break;
+                case ABSTRACT: result |= Modifier.ABSTRACT; break;
+                case STATIC: result |= Modifier.STATIC; break;
+                case FINAL: result |= Modifier.FINAL; break;
+                case TRANSIENT: result |= Modifier.TRANSIENT; break;
+                case VOLATILE: result |= Modifier.VOLATILE; break;
+                case SYNCHRONIZED: result |= Modifier.SYNCHRONIZED; break;
+                case NATIVE: result |= Modifier.NATIVE; break;
+                default: break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the erasure of each type variable in scope of a class, including
+     * those of the classes it is declared within.
+     */
+    private Map<String, String> typeVariables(Declaration declaration) {
+        Map<String, String> variables = new HashMap<>();
+        if (declaration.outer != null) {
+            variables.putAll(typeVariables(declaration.outer));
+        }
+        if (declaration.type instanceof ClassOrInterfaceDeclaration) {
+            addTypeVariables(((ClassOrInterfaceDeclaration) declaration.type)
+                    .getTypeParameters(), declaration, variables);
+        }
+        return variables;
+    }
+
+    private void addTypeVariables(NodeList<TypeParameter> parameters,
+                                  Declaration declaration, Map<String, String> variables) {
+        /* Declare every variable before resolving bounds that may refer to them */
+        for (TypeParameter parameter : parameters) {
+            variables.put(parameter.getNameAsString(), OBJECT);
+        }
+        for (TypeParameter parameter : parameters) {
+            if (parameter.getTypeBound().isNonEmpty()) {
+                variables.put(parameter.getNameAsString(),
+                        typeName(parameter.getTypeBound().get(0), declaration, variables));
+            }
+        }
+    }
+
+    /**
+     * Resolve the erasure of a type to a binary name as returned by
+     * {@link Class#getName()}.
+     */
+    private String typeName(Type type, Declaration declaration, Map<String, String> variables) {
+        if (type.isPrimitiveType() || type.isVoidType()) {
+            return type.asString();
+        }
+        if (type.isArrayType()) {
+            String component = typeName(type.asArrayType().getComponentType(),
+                    declaration, variables);
+            return "[" + descriptor(component);
+        }
+        if (type.isWildcardType()) {
+            return type.asWildcardType().getExtendedType()
+                    .map(bound -> typeName(bound, declaration, variables))
+                    .orElse(OBJECT);
+        }
+        if (!type.isClassOrInterfaceType()) {
+            return OBJECT;
+        }
+
+        List<String> names = new ArrayList<>();
+        ClassOrInterfaceType current = type.asClassOrInterfaceType();
+        while (current != null) {
+            names.add(0, current.getNameAsString());
+            current = current.getScope().orElse(null);
+        }
+
+        if (names.size() == 1 && variables.containsKey(names.get(0))) {
+            return variables.get(names.get(0));
+        }
+
+        String outer = simpleName(names.get(0), declaration);
+        if (outer != null) {
+            return nested(outer, names.subList(1, names.size()));
+        }
+        if (names.size() > 1) {
+            return qualifiedName(names);
+        }
+        /* Assume an unknown class is in the same package */
+        return declaration.unit.getPackageDeclaration()
+                .map(packageDeclaration -> packageDeclaration.getNameAsString() + ".")
+                .orElse("") + names.get(0);
+    }
+
+    /**
+     * Resolve a simple class name as the compiler would: a class declared
+     * within or by an enclosing class, a single type import, a class in the
+     * same package, an on demand import or a java.lang class.
+     *
+     * @return The binary name or null if the name is not a known class.
+     */
+    private String simpleName(String name, Declaration declaration) {
+        for (Declaration scope = declaration; scope != null; scope = scope.outer) {
+            if (scope.type.getNameAsString().equals(name)) {
+                return scope.name;
+            }
+            if (types.containsKey(scope.name + "$" + name)) {
+                return scope.name + "$" + name;
+            }
+        }
+
+        CompilationUnit unit = declaration.unit;
+        for (ImportDeclaration imported : unit.getImports()) {
+            String importName = imported.getNameAsString();
+            if (!imported.isStatic() && !imported.isAsterisk()
+                    && (importName.equals(name) || importName.endsWith("." + name))) {
+                return qualifiedName(List.of(importName.split("\\.")));
+            }
+        }
+
+        String packageName = unit.getPackageDeclaration()
+                .map(packageDeclaration -> packageDeclaration.getNameAsString() + ".")
+                .orElse("");
+        if (types.containsKey(packageName + name)) {
+            return packageName + name;
+        }
+
+        for (ImportDeclaration imported : unit.getImports()) {
+            if (!imported.isStatic() && imported.isAsterisk()) {
+                String candidate = qualifiedName(List.of(
+                        (imported.getNameAsString() + "." + name).split("\\.")));
+                if (exists(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+
+        if (exists("java.lang." + name)) {
+            return "java.lang." + name;
+        }
+        return null;
+    }
+
+    /**
+     * Resolve a qualified class name, where the first known class may be
+     * followed by the names of classes nested within it.
+     */
+    private String qualifiedName(List<String> names) {
+        for (int i = 1; i <= names.size(); i++) {
+            String candidate = String.join(".", names.subList(0, i));
+            if (exists(candidate)) {
+                return nested(candidate, names.subList(i, names.size()));
+            }
+        }
+        return String.join(".", names);
+    }
+
+    private static String nested(String outer, List<String> names) {
+        StringBuilder name = new StringBuilder(outer);
+        for (String inner : names) {
+            name.append('$').append(inner);
+        }
+        return name.toString();
+    }
+
+    private boolean exists(String name) {
+        return types.containsKey(name) || known.computeIfAbsent(name,
+                candidate -> ClassLoader.getSystemResource(
+                        candidate.replace('.', '/') + ".class") != null);
+    }
+
+    /**
+     * Convert a binary name to the form used within an array binary name,
+     * e.g. int to I and java.lang.String to Ljava.lang.String;.
+     */
+    private static String descriptor(String name) {
+        switch (name) {
+            case "boolean": return "Z";
+            case "byte": return "B";
+            case "char": return "C";
+            case "short": return "S";
+            case "int": return "I";
+            case "long": return "J";
+            case "float": return "F";
+            case "double": return "D";
+            default: return name.startsWith("[") ? name : "L" + name + ";";
+        }
+    }
+
+    /**
+     * A method inherited from a super type, with its types erased as declared
+     * and its parameters also erased after substituting the type arguments
+     * given to the super type, as in the signature it is overridden with.
+     */
+    private static class Inherited {
+        private final String name;
+        private final boolean isAbstract;
+        private final List<String> parameters;
+        private final List<String> erasedParameters;
+        private final String erasedType;
+        private final List<String> exceptions;
+
+        Inherited(String name, boolean isAbstract, List<String> parameters,
+                  List<String> erasedParameters, String erasedType, List<String> exceptions) {
+            this.name = name;
+            this.isAbstract = isAbstract;
+            this.parameters = parameters;
+            this.erasedParameters = erasedParameters;
+            this.erasedType = erasedType;
+            this.exceptions = exceptions;
+        }
+    }
+
+    /**
+     * A class declared in a source file.
+     */
+    private static class Declaration {
+        private final CompilationUnit unit;
+        private final Declaration outer;
+        private final String name;
+        private final TypeDeclaration<?> type;
+
+        Declaration(CompilationUnit unit, Declaration outer, String name,
+                    TypeDeclaration<?> type) {
+            this.unit = unit;
+            this.outer = outer;
+            this.name = name;
+            this.type = type;
+        }
+    }
+}
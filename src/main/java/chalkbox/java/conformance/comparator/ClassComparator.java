@@ -3,35 +3,43 @@ package chalkbox.java.conformance.comparator;
 import chalkbox.java.conformance.comparator.flags.Flag;
 import chalkbox.java.conformance.comparator.flags.ListFlag;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Member;
-import java.lang.reflect.Method;
 import java.util.*;
 
-public class ClassComparator extends CodeComparator<Class> {
+public class ClassComparator extends CodeComparator<ClassModel> {
     public ClassComparator(Class expected, Class actual) {
+        this(ClassModel.of(expected), ClassModel.of(actual));
+    }
+
+    public ClassComparator(ClassModel expected, ClassModel actual) {
         super(expected, actual);
         name = expected.isInterface() ? "interface " : "class ";
         name = name + expected.getName();
     }
 
     @Override
-    protected void compare(Class expected, Class actual) {
+    protected void compare(ClassModel expected, ClassModel actual) {
         flags = new ArrayList<>();
 
         compareModifier(expected.getModifiers(), actual.getModifiers());
 
-        try {
+        String error = expected.getError() != null ? expected.getError() : actual.getError();
+        if (error != null) {
+            flags.add(new Flag("Failed to load fields: " + error, true));
+        } else {
+            MemberIndex expectedMembers = expected.getIndex();
+            MemberIndex actualMembers = actual.getIndex();
+            if (expectedMembers.signature.equals(actualMembers.signature)) {
+                // identical signatures cannot differ, so skip comparing each member
+                return;
+            }
+
             ListFlag<String> fieldFlag = new ListFlag<>("Class fields do not match!");
-            compareMembers(expected.getFields(), actual.getFields(), fieldFlag);
+            compareMembers(expectedMembers, actual.getFields(), fieldFlag);
             flags.add(fieldFlag);
 
             ListFlag<String> methodFlag = new ListFlag<>("Class methods do not match!");
-            compareMembersOverload(expected.getMethods(), actual.getMethods(), methodFlag);
-            //compareMembers(expected.getMethods(), actual.getMethods(), methodFlag);
+            compareMembersOverload(expectedMembers, actualMembers, methodFlag);
             flags.add(methodFlag);
-        } catch (NoClassDefFoundError ncd) {
-            flags.add(new Flag("Failed to load fields: " + ncd.getMessage(), true));
         }
 
         Flag shouldBeInterface = new Flag("Expected class to be an interface");
@@ -44,23 +52,17 @@ public class ClassComparator extends CodeComparator<Class> {
         flags.add(shouldBeClass);
     }
 
-    private void compareMembers(Member[] expected, Member[] actual,
+    private void compareMembers(MemberIndex expected, List<MemberModel> actual,
                                 ListFlag<String> flag) {
-        Map<String, Member> expectedMembers = new HashMap<>();
-
-        for (Member member : expected) {
-            if (member.getDeclaringClass().getName().startsWith("java.")) {
-                continue;
-            }
-            flag.addExpected(member.getName());
-            expectedMembers.put(member.getName(), member);
+        for (String name : expected.fieldNames) {
+            flag.addExpected(name);
         }
-        for (Member member : actual) {
-            if (member.getDeclaringClass().getName().startsWith("java.")) {
+        for (MemberModel member : actual) {
+            if (MemberIndex.isJava(member)) {
                 continue;
             }
             flag.addActual(member.getName());
-            Member expectedMember = expectedMembers.get(member.getName());
+            MemberModel expectedMember = expected.fields.get(member.getName());
             if (expectedMember != null) {
                 CodeComparator comparator = buildComparator(expectedMember, member);
                 comparator.indent = indent + 4;
@@ -69,59 +71,47 @@ public class ClassComparator extends CodeComparator<Class> {
         }
     }
 
-    private CodeComparator buildComparator(Member expected, Member actual) {
-        if ((expected instanceof Field) && (actual instanceof Field)) {
-            return new FieldComparator((Field) expected, (Field) actual);
-        } else if ((expected instanceof Method) && (actual instanceof Method)) {
-            return new MethodComparator((Method) expected, (Method) actual);
+    private CodeComparator buildComparator(MemberModel expected, MemberModel actual) {
+        if (!expected.isMethod() && !actual.isMethod()) {
+            return new FieldComparator(expected, actual);
+        } else if (expected.isMethod() && actual.isMethod()) {
+            return new MethodComparator(expected, actual);
         }
 
         throw new RuntimeException("Unknown comparator types");
     }
 
-    private void compareMembersOverload(Member[] expected, Member[] actual,
+    private void compareMembersOverload(MemberIndex expected, MemberIndex actual,
                                         ListFlag<String> flag) {
-        // Group all methods by name ( collecting overloaded )
-        Map<String, List<Member>> expectedMembers = new HashMap<>();
-        for (Member member : expected) {
-            if (member.getDeclaringClass().getName().startsWith("java.")) {
-                continue;
-            }
-            if (!expectedMembers.containsKey(member.getName())) {
-                flag.addExpected(member.getName());
-                expectedMembers.put(member.getName(), new ArrayList<>());
-            }
-            expectedMembers.get(member.getName()).add(member);
+        // Overloads of both classes are grouped and sorted once per class
+        for (String name : expected.methodNames) {
+            flag.addExpected(name);
         }
-        // Group all methods by name ( collecting overloaded )
-        Map<String, List<Member>> actualMembers = new HashMap<>();
-        for (Member member : actual) {
-            if (member.getDeclaringClass().getName().startsWith("java.")) {
-                continue;
-            }
-            if (!actualMembers.containsKey(member.getName())) {
-                flag.addActual(member.getName());
-                actualMembers.put(member.getName(), new ArrayList<>());
-            }
-            actualMembers.get(member.getName()).add(member);
+        for (String name : actual.methodNames) {
+            flag.addActual(name);
         }
         // pair up the actual and expected that match and then attempt to match the rest based on tostring. Use the
         // baselines if we run out of pairs.
-        for (var member : actualMembers.keySet()) {
-            List<Member> expOverloads = expectedMembers.get(member);
+        for (var member : actual.methodNames) {
+            List<MemberModel> expOverloads = expected.methods.get(member);
             if (expOverloads == null) {
                 continue;
             }
-            expOverloads.sort(Comparator.comparing(Member::toString)); // todo: check this works
-            List<Member> actOverloads = actualMembers.get(member);
-            actOverloads.sort(Comparator.comparing(Member::toString)); // todo: check this works
-            List<Member> expOverloadsLeft = new ArrayList<>(expOverloads);
-            List<Member> actOverloadsLeft = new ArrayList<>(actOverloads);
+            List<MemberModel> actOverloads = actual.methods.get(member);
+            List<MemberModel> expOverloadsLeft = new ArrayList<>(expOverloads);
+            List<MemberModel> actOverloadsLeft = new ArrayList<>(actOverloads);
             // we know we have atleast 1 of each by this point.
             var baselineExpected = expOverloads.get(0);
             var baselineActual = actOverloads.get(0);
+            // overloads with identical signatures cannot differ, so pair them without comparing
             for (var actOverload : actOverloads) {
-                for (var expOverload : expOverloads) {
+                var expOverload = expected.signatures.get(actOverload.getSignature());
+                if (expOverload != null && expOverloadsLeft.remove(expOverload)) {
+                    actOverloadsLeft.remove(actOverload);
+                }
+            }
+            for (var actOverload : new ArrayList<>(actOverloadsLeft)) {
+                for (var expOverload : expOverloadsLeft) {
                     var comparator = buildComparator(expOverload, actOverload);
                     if (!comparator.hasDifference()) {
                         comparator.indent = indent + 4;
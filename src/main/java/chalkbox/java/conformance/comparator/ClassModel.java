@@ -0,0 +1,139 @@
+package chalkbox.java.conformance.comparator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The signature of a class or interface, as compared by conformance
+ * checking.
+ *
+ * <p>A model holds the public fields and methods of a class, including
+ * inherited members, in the same way as {@link Class#getFields()} and
+ * {@link Class#getMethods()}. A model can be created from a loaded class,
+ * see {@link #of(Class)}, or read directly from class files without loading
+ * them, see {@link chalkbox.java.conformance.ClassFileReader}.
+ */
+public class ClassModel {
+    private static final ClassValue<ClassModel> MODELS = new ClassValue<>() {
+        @Override
+        protected ClassModel computeValue(Class<?> type) {
+            return new ClassModel(type);
+        }
+    };
+
+    private final String name;
+    private final int modifiers;
+    private final boolean isInterface;
+    private final String generic;
+    private final List<MemberModel> fields;
+    private final List<MemberModel> methods;
+    private final String error;
+
+    private MemberIndex index;
+
+    /**
+     * Create the model of a class read from class files.
+     *
+     * @param name Binary name of the class.
+     * @param modifiers Modifiers of the class, see {@link java.lang.reflect.Modifier}.
+     * @param isInterface Whether the class is an interface.
+     * @param generic Generic signature of the class, or an empty string.
+     * @param fields Public fields of the class, including inherited fields.
+     * @param methods Public methods of the class, including inherited methods.
+     * @param error Why the members of the class could not all be read, or null.
+     */
+    public ClassModel(String name, int modifiers, boolean isInterface, String generic,
+                      List<MemberModel> fields, List<MemberModel> methods,
+                      String error) {
+        this.name = name;
+        this.modifiers = modifiers;
+        this.isInterface = isInterface;
+        this.generic = generic;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.methods = Collections.unmodifiableList(new ArrayList<>(methods));
+        this.error = error;
+    }
+
+    private ClassModel(Class<?> type) {
+        List<MemberModel> fields = new ArrayList<>();
+        List<MemberModel> methods = new ArrayList<>();
+        String error = null;
+        try {
+            for (Field field : type.getFields()) {
+                fields.add(MemberModel.of(field));
+            }
+            for (Method method : type.getMethods()) {
+                methods.add(MemberModel.of(method));
+            }
+        } catch (NoClassDefFoundError ncd) {
+            error = ncd.getMessage();
+        }
+
+        this.name = type.getName();
+        this.modifiers = type.getModifiers();
+        this.isInterface = type.isInterface();
+        this.generic = type.toGenericString();
+        this.fields = Collections.unmodifiableList(fields);
+        this.methods = Collections.unmodifiableList(methods);
+        this.error = error;
+    }
+
+    /**
+     * Get the model of a loaded class, created the first time it is requested.
+     *
+     * @param type The loaded class.
+     * @return The shared model of the class.
+     */
+    public static ClassModel of(Class<?> type) {
+        return MODELS.get(type);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    public boolean isInterface() {
+        return isInterface;
+    }
+
+    /**
+     * @return The generic signature of the class, used only to tell whether
+     *         two classes have identical signatures.
+     */
+    public String getGeneric() {
+        return generic;
+    }
+
+    public List<MemberModel> getFields() {
+        return fields;
+    }
+
+    public List<MemberModel> getMethods() {
+        return methods;
+    }
+
+    /**
+     * @return Why the members of the class could not all be read, e.g. a
+     *         missing dependency, or null if they were.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return The index of the members of this class, built once.
+     */
+    synchronized MemberIndex getIndex() {
+        if (index == null) {
+            index = new MemberIndex(this);
+        }
+        return index;
+    }
+}
@@ -12,6 +12,8 @@ public abstract class CodeComparator<T> {
     protected int indent = 0;
     protected List<CodeComparator> subComparators = new ArrayList<>();
     protected List<Flag> flags = new ArrayList<>();
+    /** Whether this or any sub comparator differs, once computed */
+    private Boolean difference;
 
     public CodeComparator(T expected, T actual) {
         this.compare(expected, actual);
@@ -21,7 +23,20 @@ public abstract class CodeComparator<T> {
         return name;
     }
 
+    /**
+     * The result is computed once, as a comparator does not change after it
+     * has been constructed.
+     *
+     * @return true iff this comparison or any comparison within it differs.
+     */
     public boolean hasDifference() {
+        if (difference == null) {
+            difference = computeDifference();
+        }
+        return difference;
+    }
+
+    private boolean computeDifference() {
         for (Flag flag : flags) {
             if (flag.isSet()) {
                 return true;
@@ -3,21 +3,19 @@ package chalkbox.java.conformance.comparator;
 import chalkbox.java.conformance.comparator.flags.Flag;
 import chalkbox.java.conformance.comparator.flags.SingularFlag;
 
-import java.lang.reflect.Field;
-
-public class FieldComparator extends CodeComparator<Field> {
-    public FieldComparator(Field expected, Field actual) {
+public class FieldComparator extends CodeComparator<MemberModel> {
+    public FieldComparator(MemberModel expected, MemberModel actual) {
         super(expected, actual);
-        name = "Field " + expected.getDeclaringClass().getName()
+        name = "Field " + expected.getDeclaringClass()
                 + "." + expected.getName();
     }
 
     @Override
-    protected void compare(Field expected, Field actual) {
+    protected void compare(MemberModel expected, MemberModel actual) {
         compareModifier(expected.getModifiers(), actual.getModifiers());
 
         Flag modifierFlag = new SingularFlag<>("Field type does not match!",
-                expected.getType().getName(), actual.getType().getName());
+                expected.getType(), actual.getType());
         flags.add(modifierFlag);
     }
 }
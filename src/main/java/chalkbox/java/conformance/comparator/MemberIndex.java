@@ -0,0 +1,99 @@
+package chalkbox.java.conformance.comparator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The public fields and methods of a class that are compared, excluding
+ * members declared by java.* classes.
+ *
+ * <p>The index of a class is built once and shared by every comparison
+ * involving it, see {@link ClassModel#getIndex()}.
+ *
+ * <p>The index includes a canonical signature of the class and each of its
+ * members, covering everything that is compared: modifiers, types,
+ * generic types and thrown exceptions. Two members or classes with equal
+ * signatures cannot differ, so they can be matched without being compared.
+ */
+class MemberIndex {
+    /** Names of each field, including fields hidden by another of the same name */
+    final List<String> fieldNames;
+    final Map<String, MemberModel> fields;
+    /** Names of each method, once per set of overloads, in alphabetical order */
+    final List<String> methodNames;
+    /** Overloads of each method sorted by their description */
+    final Map<String, List<MemberModel>> methods;
+    /** Methods by their signature */
+    final Map<String, MemberModel> signatures;
+    /** Signature of the class and all of its indexed members */
+    final String signature;
+
+    MemberIndex(ClassModel type) {
+        StringBuilder signature = new StringBuilder()
+                .append(type.getModifiers()).append(' ')
+                .append(type.isInterface()).append(' ')
+                .append(type.getGeneric()).append('\n');
+
+        List<String> fieldNames = new ArrayList<>();
+        Map<String, MemberModel> fields = new HashMap<>();
+        for (MemberModel member : type.getFields()) {
+            if (isJava(member)) {
+                continue;
+            }
+            fieldNames.add(member.getName());
+            fields.put(member.getName(), member);
+            /* Fields are kept in order as fields of the same name are paired by order */
+            signature.append(member.getSignature()).append('\n');
+        }
+
+        Map<String, List<MemberModel>> methods = group(type.getMethods());
+        Map<String, MemberModel> signatures = new HashMap<>();
+        List<String> methodSignatures = new ArrayList<>();
+        for (List<MemberModel> overloads : methods.values()) {
+            overloads.sort(Comparator.comparing(MemberModel::toString));
+            for (MemberModel member : overloads) {
+                signatures.put(member.getSignature(), member);
+                methodSignatures.add(member.getSignature());
+            }
+        }
+        /* The order methods are returned in is unspecified */
+        Collections.sort(methodSignatures);
+        for (String methodSignature : methodSignatures) {
+            signature.append(methodSignature).append('\n');
+        }
+
+        this.fieldNames = Collections.unmodifiableList(fieldNames);
+        this.fields = Collections.unmodifiableMap(fields);
+        List<String> methodNames = new ArrayList<>(methods.keySet());
+        Collections.sort(methodNames);
+        this.methodNames = Collections.unmodifiableList(methodNames);
+        this.methods = Collections.unmodifiableMap(methods);
+        this.signatures = Collections.unmodifiableMap(signatures);
+        this.signature = signature.toString();
+    }
+
+    /**
+     * Group members by name, collecting overloaded members, in the order the
+     * first member of each name appears.
+     */
+    private static Map<String, List<MemberModel>> group(List<MemberModel> members) {
+        Map<String, List<MemberModel>> grouped = new LinkedHashMap<>();
+        for (MemberModel member : members) {
+            if (isJava(member)) {
+                continue;
+            }
+            grouped.computeIfAbsent(member.getName(), name -> new ArrayList<>())
+                    .add(member);
+        }
+        return grouped;
+    }
+
+    static boolean isJava(MemberModel member) {
+        return member.getDeclaringClass().startsWith("java.");
+    }
+}
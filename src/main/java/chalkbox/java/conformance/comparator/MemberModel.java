@@ -0,0 +1,202 @@
+package chalkbox.java.conformance.comparator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The signature of a public field or method, as compared by conformance
+ * checking.
+ *
+ * <p>Type names are binary names as returned by {@link Class#getName()},
+ * e.g. int, java.lang.String or [Ljava.lang.String;.
+ */
+public class MemberModel {
+    private final boolean method;
+    private final String name;
+    private final String declaringClass;
+    private final int modifiers;
+    private final String type;
+    private final List<String> parameterTypes;
+    private final List<String> exceptionTypes;
+    private final String description;
+    private final String signature;
+
+    private MemberModel(boolean method, String name, String declaringClass,
+                        int modifiers, String type, List<String> parameterTypes,
+                        List<String> exceptionTypes, String generic,
+                        String description) {
+        this.method = method;
+        this.name = name;
+        this.declaringClass = declaringClass;
+        this.modifiers = modifiers;
+        this.type = type;
+        this.parameterTypes = Collections.unmodifiableList(parameterTypes);
+        this.exceptionTypes = Collections.unmodifiableList(exceptionTypes);
+        this.description = description;
+        /* Both the generic and erased forms are included, as either may
+           differ while the other does not, along with every modifier bit */
+        this.signature = modifiers + " " + generic + " " + description;
+    }
+
+    /**
+     * Create the model of a loaded field.
+     */
+    public static MemberModel of(Field field) {
+        return new MemberModel(false, field.getName(),
+                field.getDeclaringClass().getName(), field.getModifiers(),
+                field.getType().getName(), new ArrayList<>(), new ArrayList<>(),
+                field.toGenericString(), field.toString());
+    }
+
+    /**
+     * Create the model of a loaded method.
+     */
+    public static MemberModel of(Method method) {
+        return new MemberModel(true, method.getName(),
+                method.getDeclaringClass().getName(), method.getModifiers(),
+                method.getReturnType().getName(), names(method.getParameterTypes()),
+                names(method.getExceptionTypes()), method.toGenericString(),
+                method.toString());
+    }
+
+    /**
+     * Create the model of a field read from a class file.
+     *
+     * @param name Name of the field.
+     * @param declaringClass Binary name of the class declaring the field.
+     * @param modifiers Modifiers of the field, see {@link Modifier}.
+     * @param type Binary name of the type of the field.
+     * @param generic Generic signature of the field, or an empty string.
+     */
+    public static MemberModel field(String name, String declaringClass, int modifiers,
+                                    String type, String generic) {
+        String description = describe(modifiers & Modifier.fieldModifiers(),
+                typeName(type) + " " + declaringClass + "." + name);
+        return new MemberModel(false, name, declaringClass, modifiers, type,
+                new ArrayList<>(), new ArrayList<>(), generic, description);
+    }
+
+    /**
+     * Create the model of a method read from a class file.
+     *
+     * @param name Name of the method.
+     * @param declaringClass Binary name of the class declaring the method.
+     * @param modifiers Modifiers of the method, see {@link Modifier}.
+     * @param returnType Binary name of the return type of the method.
+     * @param parameterTypes Binary names of the parameter types of the method.
+     * @param exceptionTypes Binary names of the exceptions the method throws.
+     * @param generic Generic signature of the method, or an empty string.
+     * @param isDefault Whether the method is a default method of an interface.
+     */
+    public static MemberModel method(String name, String declaringClass, int modifiers,
+                                     String returnType, List<String> parameterTypes,
+                                     List<String> exceptionTypes, String generic,
+                                     boolean isDefault) {
+        StringBuilder description = new StringBuilder(isDefault ? "default " : "")
+                .append(typeName(returnType))
+                .append(' ').append(declaringClass).append('.').append(name).append('(');
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            description.append(i == 0 ? "" : ",").append(typeName(parameterTypes.get(i)));
+        }
+        description.append(')');
+        for (int i = 0; i < exceptionTypes.size(); i++) {
+            description.append(i == 0 ? " throws " : ",").append(exceptionTypes.get(i));
+        }
+
+        return new MemberModel(true, name, declaringClass, modifiers, returnType,
+                new ArrayList<>(parameterTypes), new ArrayList<>(exceptionTypes), generic,
+                describe(modifiers & Modifier.methodModifiers(), description.toString()));
+    }
+
+    public boolean isMethod() {
+        return method;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDeclaringClass() {
+        return declaringClass;
+    }
+
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * @return The type of a field or the return type of a method.
+     */
+    public String getType() {
+        return type;
+    }
+
+    public List<String> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public List<String> getExceptionTypes() {
+        return exceptionTypes;
+    }
+
+    /**
+     * @return The canonical signature of the member, two members with equal
+     *         signatures cannot differ.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * @return A description of the member in the form of {@link Method#toString()}.
+     */
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private static String describe(int modifiers, String member) {
+        return modifiers == 0 ? member : Modifier.toString(modifiers) + " " + member;
+    }
+
+    private static List<String> names(Class<?>[] types) {
+        List<String> names = new ArrayList<>();
+        for (Class<?> type : types) {
+            names.add(type.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Convert a binary type name to the name used in source code,
+     * e.g. [Ljava.lang.String; to java.lang.String[].
+     */
+    private static String typeName(String binaryName) {
+        int dimensions = 0;
+        while (binaryName.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        if (dimensions == 0) {
+            return binaryName;
+        }
+
+        String component;
+        switch (binaryName.charAt(dimensions)) {
+            case 'Z': component = "boolean"; break;
+            case 'B': component = "byte"; break;
+            case 'C': component = "char"; break;
+            case 'S': component = "short"; break;
+            case 'I': component = "int"; break;
+            case 'J': component = "long"; break;
+            case 'F': component = "float"; break;
+            case 'D': component = "double"; break;
+            default:
+                component = binaryName.substring(dimensions + 1, binaryName.length() - 1);
+        }
+        return component + "[]".repeat(dimensions);
+    }
+}
@@ -4,38 +4,36 @@ import chalkbox.java.conformance.comparator.flags.Flag;
 import chalkbox.java.conformance.comparator.flags.ListFlag;
 import chalkbox.java.conformance.comparator.flags.SingularFlag;
 
-import java.lang.reflect.Method;
-
-public class MethodComparator extends CodeComparator<Method> {
-    public MethodComparator(Method expected, Method actual) {
+public class MethodComparator extends CodeComparator<MemberModel> {
+    public MethodComparator(MemberModel expected, MemberModel actual) {
         super(expected, actual);
-        name = "Method " + expected.getDeclaringClass().getName()
+        name = "Method " + expected.getDeclaringClass()
                 + "." + expected.getName();
     }
 
     @Override
-    protected void compare(Method expected, Method actual) {
+    protected void compare(MemberModel expected, MemberModel actual) {
         compareModifier(expected.getModifiers(), actual.getModifiers());
 
         Flag modifierFlag = new SingularFlag<>("Method return type does not match!",
-                expected.getReturnType().getName(), actual.getReturnType().getName());
+                expected.getType(), actual.getType());
         flags.add(modifierFlag);
 
         ListFlag<String> exceptionFlag = new ListFlag<>("Thrown exceptions do not match!");
-        for (Class parameter : expected.getExceptionTypes()) {
-            exceptionFlag.addExpected(parameter.getName());
+        for (String parameter : expected.getExceptionTypes()) {
+            exceptionFlag.addExpected(parameter);
         }
-        for (Class parameter : actual.getExceptionTypes()) {
-            exceptionFlag.addActual(parameter.getName());
+        for (String parameter : actual.getExceptionTypes()) {
+            exceptionFlag.addActual(parameter);
         }
         flags.add(exceptionFlag);
 
         ListFlag<String> parametersFlag = new ListFlag<>("Method parameters do not match!");
-        for (Class parameter : expected.getParameterTypes()) {
-            parametersFlag.addExpected(parameter.getName());
+        for (String parameter : expected.getParameterTypes()) {
+            parametersFlag.addExpected(parameter);
         }
-        for (Class parameter : actual.getParameterTypes()) {
-            parametersFlag.addActual(parameter.getName());
+        for (String parameter : actual.getParameterTypes()) {
+            parametersFlag.addActual(parameter);
         }
         flags.add(parametersFlag);
     }
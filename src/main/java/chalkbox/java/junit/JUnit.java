@@ -1,38 +1,76 @@
 package chalkbox.java.junit;
 
 import chalkbox.api.annotations.ConfigItem;
+import chalkbox.api.annotations.Finish;
 import chalkbox.api.annotations.Pipe;
 import chalkbox.api.annotations.Prior;
 import chalkbox.api.annotations.Processor;
 import chalkbox.api.collections.Bundle;
 import chalkbox.api.collections.Collection;
-import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+import chalkbox.api.common.java.ByteClassLoader;
 import chalkbox.api.common.java.Compiler;
+import chalkbox.api.common.java.InProcessJUnitRunner;
+import chalkbox.api.common.java.JUnitResult;
 import chalkbox.api.common.java.JUnitRunner;
+import chalkbox.api.common.java.TestIsolation;
 import chalkbox.api.files.FileLoader;
 import chalkbox.api.files.SourceFile;
+import chalkbox.api.results.TestResult;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
+/**
+ * Process to grade student JUnit tests by how many broken solutions they
+ * catch.
+ *
+ * <p>Student tests are compiled against the sample solution and executed
+ * against the sample solution and each broken solution. A student test class
+ * has caught a broken solution, correct is true, if fewer of its tests pass
+ * against the broken solution than against the sample solution.
+ *
+ * <p>With CLASSLOADER isolation the compiled student tests and all
+ * solutions are read into memory once. Each execution defines them in a
+ * child of a single loader of the class path, so JUnit is loaded once, and
+ * the broken solutions are executed in parallel. A test class stops
+ * executing once it has caught a broken solution, the amount of tests not
+ * executed is recorded as skipped.
+ */
 @Processor
 public class JUnit {
     private static final Logger LOGGER = Logger.getLogger(JUnit.class.getName());
-    private static final String SOLUTIONS_ROOT = "junit.solutions";
+    /** Path of the {@link TestResult} of each test class, by solution then class name */
+    public static final DataPath SOLUTIONS = DataPath.of("junit.solutions");
+    /** Path of the compilation of each student test class, by class name */
+    public static final DataPath TESTS = DataPath.of("junit.tests");
 
     private Bundle solutionsOutput;
     private Bundle solutionOutput;
 
     private String solutionClassPath;
     private Map<String, String> classPaths = new HashMap<>();
+    private Map<String, String> solutionsFolders = new HashMap<>();
+
+    /** Loader of the class path shared by every execution of the tests in memory */
+    private URLClassLoader testLoader;
+    private Map<String, byte[]> solutionClasses;
+    private Map<String, Map<String, byte[]>> solutionsClasses = new LinkedHashMap<>();
+    private ExecutorService executor;
 
     @ConfigItem(description = "JUnit classes to execute, separated by |")
     public String classes;
@@ -40,19 +78,68 @@ public class JUnit {
     @ConfigItem(description = "Class path for student tests to be compiled with")
     public String classPath;
 
-    @ConfigItem(key = "solution",
+    @ConfigItem(key = "solution", input = true,
             description = "Path to a directory containing the sample solution")
     public String solution;
 
-    @ConfigItem(key = "junitSolutions",
+    @ConfigItem(key = "junitSolutions", input = true,
             description = "Path to a directory containing various broken sample solutions")
     public String solutions;
 
+    @ConfigItem(required = false,
+            description = "How tests are isolated from chalkbox: PROCESS, CLASSLOADER or WORKER")
+    public TestIsolation isolation = TestIsolation.PROCESS;
+
     @Prior
     public void init() {
         createCompilationOutput();
         compileSolution();
         compileSolutions();
+
+        if (isolation == TestIsolation.CLASSLOADER) {
+            loadSolutions();
+        }
+    }
+
+    /**
+     * Read the compiled sample solution and broken solutions into memory and
+     * load the class path to execute tests in memory with.
+     */
+    public void loadSolutions() {
+        try {
+            testLoader = InProcessJUnitRunner.createLoader(classPath, new File("."));
+            solutionClasses = ByteClassLoader.readClasses(
+                    new File(solutionOutput.getUnmaskedPath()));
+            for (Map.Entry<String, String> solution : solutionsFolders.entrySet()) {
+                solutionsClasses.put(solution.getKey(),
+                        ByteClassLoader.readClasses(new File(solution.getValue())));
+            }
+        } catch (IOException e) {
+            LOGGER.severe("Unable to load compiled solutions, tests will be executed in processes");
+            testLoader = null;
+            return;
+        }
+
+        executor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "junit-solutions");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Finish
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (testLoader != null) {
+            try {
+                testLoader.close();
+            } catch (IOException e) {
+                LOGGER.warning("Unable to close the test class loader");
+            }
+        }
     }
 
     /**
@@ -131,6 +218,7 @@ public class JUnit {
 
             /* Add an entry for this solution to the class path mapping */
             classPaths.put(solutionName, classPath + ":" + solutionOut);
+            solutionsFolders.put(solutionName, solutionOut);
         }
     }
 
@@ -156,45 +244,43 @@ public class JUnit {
 
         Bundle tests = submission.getSource().getBundle("test");
 
-        StringWriter output = new StringWriter();
         StringWriter error = new StringWriter();
 
-        boolean success = false; // new code
-        /*
-            Used to compile all together - now compiles tests individually
-            to switch back to original functionality - removed lines which are
-            marked new code.
-            uncomment commented out lines
-         */
-        //List<SourceFile> files = new ArrayList<>();
+        /* Compile every test file together, each failing on its own */
+        Map<SourceFile, String> classNames = new LinkedHashMap<>();
         for (String className : testClasses) {
             String fileName = className.replace(".", "/") + ".java";
-            SourceFile file;
             try {
-                file = tests.getFile(fileName);
-                List<SourceFile> files = new ArrayList<>();
-                files.add(file);
-                //start of new code
-                boolean fileSuccess = Compiler.compile(files,
-                        solutionClassPath,
-                        submission.getWorking().getUnmaskedPath(), output);
-                if (fileSuccess) {
-                    success = true;
-                }
-                //end of new code
-                output.write("JUnit test file " + fileName + " found\n");
+                classNames.put(tests.getFile(fileName), className);
             } catch (FileNotFoundException e) {
                 error.write("JUnit test file " + fileName + " not found\n");
             } catch (IOException e) {
                 error.write("IO Compile Error - Please contact course staff\n");
             }
+        }
+
+        Map<SourceFile, String> outputs = new HashMap<>();
+        Map<SourceFile, Boolean> compiles = Compiler.compileEach(
+                new ArrayList<>(classNames.keySet()), solutionClassPath,
+                submission.getWorking().getUnmaskedPath(), outputs);
 
+        StringWriter output = new StringWriter();
+        boolean success = false;
+        for (Map.Entry<SourceFile, String> test : classNames.entrySet()) {
+            String className = test.getValue();
+            String fileOutput = outputs.get(test.getKey());
+            boolean fileSuccess = compiles.get(test.getKey());
+            success = success || fileSuccess;
+
+            DataPath key = TESTS.resolve(className);
+            submission.getResults().set(key.resolve("compiles"), fileSuccess);
+            submission.getResults().set(key.resolve("output"), fileOutput);
+
+            output.write(fileOutput);
+            output.write("JUnit test file " + className.replace(".", "/")
+                    + ".java found\n");
         }
 
-        /*
-        boolean success = Compiler.compile(files, solutionClassPath,
-                submission.getWorking().getUnmaskedPath(), output);
-         */
         submission.getResults().set("junit.compiles", success);
         submission.getResults().set("junit.output", output.toString());
         submission.getResults().set("junit.error", error.toString());
@@ -213,14 +299,19 @@ public class JUnit {
         String[] testClasses = classes.split("\\|");
         LOGGER.finest("Running student tests " + student);
         LOGGER.finest(Arrays.toString(testClasses));
+        if (testLoader != null) {
+            return runInMemory(submission, testClasses);
+        }
+
         File working = new File(submission.getSource().getUnmaskedPath());
 
         Map<String, Integer> passes = new HashMap<>();
         for (String testClass : testClasses) {
             String classPath = solutionClassPath + ":" + submission.getWorking().getUnmaskedPath();
-            Data results = JUnitRunner.runTest(testClass, classPath, working);
-            if (results.get("passes") != null) {
-                passes.put(testClass, Integer.parseInt(results.get("passes").toString()));
+            TestResult result = TestResult.of(
+                    JUnitRunner.runTest(testClass, classPath, working, isolation));
+            if (result.wasExecuted()) {
+                passes.put(testClass, result.getPasses());
             }
         }
 
@@ -229,22 +320,120 @@ public class JUnit {
             String classPath = classPaths.get(solution) + ":" + submission.getWorking().getUnmaskedPath();
 
             for (String testClass : testClasses) {
-                String jsonRoot = SOLUTIONS_ROOT + "." + solution + "."
-                        + testClass.replace(".", "\\.");
+                DataPath jsonRoot = SOLUTIONS.resolve(solution).resolve(testClass);
 
                 /* Run the JUnit tests */
-                Data results = JUnitRunner.runTest(testClass, classPath, working);
-                results.set("correct", false);
-                if (results.get("passes") != null) {
-                    int passed = Integer.parseInt(results.get("passes").toString());
-                    if (passed < passes.get(testClass)) {
-                        results.set("correct", true);
-                    }
+                TestResult result = TestResult.of(
+                        JUnitRunner.runTest(testClass, classPath, working, isolation));
+                submission.setResult(jsonRoot, result);
+                Integer expected = passes.get(testClass);
+                submission.getResults().set(jsonRoot.resolve("correct"), result.wasExecuted()
+                        && expected != null && result.getPasses() < expected);
+            }
+        }
+
+        return submission;
+    }
+
+    /**
+     * Execute the compiled tests of a submission against the sample solution
+     * and then each broken solution in parallel, without reading the tests
+     * or solutions from disk again.
+     */
+    private Collection runInMemory(Collection submission, String[] testClasses) {
+        Map<String, byte[]> tests;
+        try {
+            tests = ByteClassLoader.readClasses(
+                    new File(submission.getWorking().getUnmaskedPath()));
+        } catch (IOException e) {
+            submission.getResults().set("junit.error", "Unable to load compiled tests - see tutor");
+            return submission;
+        }
+
+        /* Tests which pass against the sample solution, if they could be executed */
+        Map<String, Integer> passes = new HashMap<>();
+        for (String testClass : testClasses) {
+            ClassLoader loader = new ByteClassLoader(testLoader, List.of(solutionClasses, tests));
+            JUnitResult result = InProcessJUnitRunner.run(loader, testClass,
+                    (executed, remaining) -> false);
+            if (result.wasExecuted()) {
+                passes.put(testClass, result.getPasses());
+            }
+        }
+
+        List<Future<Map<DataPath, SolutionResult>>> futures = new ArrayList<>();
+        for (String solution : solutionsClasses.keySet()) {
+            futures.add(executor.submit(() ->
+                    runSolution(solution, tests, passes, testClasses)));
+        }
+
+        for (Future<Map<DataPath, SolutionResult>> future : futures) {
+            try {
+                for (Map.Entry<DataPath, SolutionResult> entry : future.get().entrySet()) {
+                    DataPath jsonRoot = entry.getKey();
+                    SolutionResult result = entry.getValue();
+                    submission.setResult(jsonRoot, result.result);
+                    submission.getResults().set(jsonRoot.resolve("correct"), result.caught);
+                    submission.getResults().set(jsonRoot.resolve("skipped"), result.skipped);
                 }
-                submission.getResults().set(jsonRoot, results);
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
         }
 
         return submission;
     }
+
+    /**
+     * Execute each test class against a broken solution, stopping a test
+     * class as soon as it can no longer pass as many tests as it did against
+     * the sample solution. A solution is only caught by a test class which
+     * was executed against both it and the sample solution.
+     *
+     * @return The results of each test class by their json path.
+     */
+    private Map<DataPath, SolutionResult> runSolution(String solution, Map<String, byte[]> tests,
+                                                      Map<String, Integer> passes,
+                                                      String[] testClasses) {
+        Map<DataPath, SolutionResult> results = new LinkedHashMap<>();
+        for (String testClass : testClasses) {
+            Integer expected = passes.get(testClass);
+            int[] skipped = new int[1];
+
+            ClassLoader loader = new ByteClassLoader(testLoader,
+                    List.of(solutionsClasses.get(solution), tests));
+            JUnitResult result = InProcessJUnitRunner.run(loader, testClass,
+                    (executed, remaining) -> {
+                        skipped[0] = remaining;
+                        return expected != null
+                                && executed.getPasses() + remaining < expected;
+                    });
+
+            boolean caught = result.wasExecuted() && expected != null
+                    && result.getPasses() < expected;
+            results.put(SOLUTIONS.resolve(solution).resolve(testClass),
+                    new SolutionResult(result.toResult(), caught, caught ? skipped[0] : 0));
+        }
+        return results;
+    }
+
+    /**
+     * The result of a test class against a broken solution.
+     */
+    private static class SolutionResult {
+        private final TestResult result;
+        /** Whether fewer tests passed than against the sample solution */
+        private final boolean caught;
+        /** Tests not executed once the solution was caught */
+        private final int skipped;
+
+        SolutionResult(TestResult result, boolean caught, int skipped) {
+            this.result = result;
+            this.caught = caught;
+            this.skipped = skipped;
+        }
+    }
 }
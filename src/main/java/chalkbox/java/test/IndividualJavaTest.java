@@ -9,12 +9,14 @@ import chalkbox.api.collections.Collection;
 import chalkbox.api.collections.Data;
 import chalkbox.api.common.java.JUnitRunner;
 import chalkbox.api.files.FileLoader;
+import chalkbox.api.results.CompilationResult;
+import chalkbox.api.results.TestResult;
 import chalkbox.java.compilation.IndividualJavaCompiler;
-import org.json.simple.JSONObject;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -27,7 +29,7 @@ public class IndividualJavaTest extends JavaTest {
     @ConfigItem(key = "temp", description = "A temporary output directory")
     public String tempResults;
 
-    @ConfigItem(key = "included", required = true,
+    @ConfigItem(key = "included", required = true, input = true,
             description = "Folder containing files to include in submission working directory when running tests")
     public File included = null;
 
@@ -58,32 +60,34 @@ public class IndividualJavaTest extends JavaTest {
                 submission.getWorking().copyFolder(included);
             }
         } catch (IOException e) {
-            submission.getResults().set("tests.error.errors",
-                    "Unable to populate working directory");
+            submission.setResult(TESTS.resolve("error"),
+                    TestResult.error("Unable to populate working directory"));
         }
 
         File working = new File(submission.getWorking().getUnmaskedPath());
 
+        Map<String, String> toRun = new LinkedHashMap<>();
         for (String className : tests.getClasses("")) {
             String clazz = className.replace("Test", "");
-            String rootJSON = "tests." + className
-                    .replace(".", "\\.");
 
-
-            if (!submission.getResults().is("compilation."
-                    + clazz.replace(".", "\\.") + ".compiles")) {
-                submission.getResults().set(rootJSON + ".errors",
-                        "src class could not compile - tests for this class not run.");
+            CompilationResult compilation = submission.getResult(
+                    IndividualJavaCompiler.COMPILATION.resolve(clazz),
+                    CompilationResult.class, CompilationResult::of);
+            if (compilation == null || !compilation.compiles()) {
+                submission.setResult(TESTS.resolve(className), TestResult.error(
+                        "src class could not compile - tests for this class not run."));
                 continue;
             }
 
-
-
-
             String classPath = this.classPath + ":" + classPaths.get(clazz)
                     + ":" + submission.getWorking().getUnmaskedPath(clazz);
-            Data results = JUnitRunner.runTest(className, classPath, working);
-            submission.getResults().set(rootJSON, results);
+            toRun.put(className, classPath);
+        }
+
+        /* Execute every test class that can be run together */
+        Map<String, Data> results = JUnitRunner.runTests(toRun, working, isolation);
+        for (Map.Entry<String, Data> result : results.entrySet()) {
+            submission.setResult(TESTS.resolve(result.getKey()), TestResult.of(result.getValue()));
         }
 
         return submission;
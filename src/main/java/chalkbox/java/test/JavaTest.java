@@ -7,13 +7,18 @@ import chalkbox.api.annotations.Processor;
 import chalkbox.api.collections.Bundle;
 import chalkbox.api.collections.Collection;
 import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
 import chalkbox.api.common.java.Compiler;
 import chalkbox.api.common.java.JUnitRunner;
+import chalkbox.api.common.java.TestIsolation;
+import chalkbox.api.results.CompilationResult;
+import chalkbox.api.results.TestResult;
 import chalkbox.java.compilation.JavaCompilation;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -46,18 +51,27 @@ import java.util.Map;
  */
 @Processor(depends = {JavaCompilation.class})
 public class JavaTest {
+    /** Path of the {@link TestResult} of each test class, by class name */
+    public static final DataPath TESTS = DataPath.of("tests");
+
     private Bundle tests;
     protected boolean hasErrors;
 
-    @ConfigItem(key = "solution", description = "Sample solution to compile tests with")
+    @ConfigItem(key = "solution", input = true,
+            description = "Sample solution to compile tests with")
     public String solutionPath;
 
-    @ConfigItem(key = "tests", description = "Path of JUnit test files")
+    @ConfigItem(key = "tests", input = true,
+            description = "Path of JUnit test files")
     public String testPath;
 
     @ConfigItem(description = "Class path for tests to be compiled with")
     public String classPath;
 
+    @ConfigItem(required = false,
+            description = "How tests are isolated from chalkbox: PROCESS, CLASSLOADER or WORKER")
+    public TestIsolation isolation = TestIsolation.PROCESS;
+
     /**
      * Compile the sample solution and then compile the tests with the sample
      * solution.
@@ -101,14 +115,22 @@ public class JavaTest {
         if (hasErrors) {
             return submission;
         }
-        if (!submission.getResults().is("compilation.compiles")) {
+        CompilationResult compilation = submission.getResult(JavaCompilation.COMPILATION,
+                CompilationResult.class, CompilationResult::of);
+        if (compilation == null || !compilation.compiles()) {
             return submission;
         }
 
         String classPath = this.classPath + ":" + submission.getWorking().getUnmaskedPath("bin");
+        Map<String, String> classPaths = new LinkedHashMap<>();
         for (String className : tests.getClasses("")) {
-            Data results = JUnitRunner.runTest(className, classPath, new File("."));
-            submission.getResults().set("tests." + className.replace(".", "\\."), results);
+            classPaths.put(className, classPath);
+        }
+
+        /* Execute every test class together */
+        Map<String, Data> results = JUnitRunner.runTests(classPaths, new File("."), isolation);
+        for (Map.Entry<String, Data> result : results.entrySet()) {
+            submission.setResult(TESTS.resolve(result.getKey()), TestResult.of(result.getValue()));
         }
 
         return submission;
@@ -8,7 +8,7 @@ import java.io.PrintStream;
 import java.util.List;
 
 public class ConformanceFilter {
-    @Output(stream = "submissions")
+    @Output(stream = "submissions", perItem = true)
     public void output(PrintStream stream, List<Collection> collections) {
         for (Collection collection : collections) {
             boolean filtered = false;
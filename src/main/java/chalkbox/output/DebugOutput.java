@@ -8,7 +8,7 @@ import java.io.PrintStream;
 import java.util.List;
 
 public class DebugOutput {
-    @Output(stream = "submissions")
+    @Output(stream = "submissions", perItem = true)
     public void output(PrintStream stream, List<Collection> collections) {
         for (Collection collection : collections) {
             Data results = collection.getResults();
@@ -8,6 +8,8 @@ import chalkbox.api.collections.Data;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.List;
 
@@ -15,7 +17,7 @@ public class SaveJsonOutput {
     @ConfigItem(key = "json")
     public String json;
 
-    @Output(stream = "submissions")
+    @Output(stream = "submissions", perItem = true)
     public void output(PrintStream stream, List<Collection> collections) {
         for (Collection collection : collections) {
             Data results = collection.getResults();
@@ -27,8 +29,10 @@ public class SaveJsonOutput {
                 jsonFile = new File(json + File.separator + results.get("sid") + ".json");
             }
 
-            try {
-                Files.write(jsonFile.toPath(), results.toString().getBytes());
+            /* Stream the results rather than building the document in memory */
+            try (Writer writer = Files.newBufferedWriter(jsonFile.toPath(),
+                    StandardCharsets.UTF_8)) {
+                results.write(writer);
             } catch (IOException e) {
                 System.err.println("Unable to write json file for " + results.get("sid"));
             }
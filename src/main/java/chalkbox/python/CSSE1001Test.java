@@ -21,10 +21,12 @@ public class CSSE1001Test {
             description = "Command to execute python from terminal")
     public String PYTHON = "python3";
 
-    @ConfigItem(key = "runner", description = "Name of the test runner")
+    @ConfigItem(key = "runner", input = true,
+            description = "Name of the test runner")
     public File runner;
 
-    @ConfigItem(key = "included", description = "Path to supplied assignment files")
+    @ConfigItem(key = "included", input = true,
+            description = "Path to supplied assignment files")
     public File included;
 
     @Pipe
@@ -44,7 +46,7 @@ public class CSSE1001Test {
         }
 
         try {
-            process = Execution.runProcess(working, environment, 10000,
+            process = Execution.runProcess("python", working, environment, 10000,
                     PYTHON, runner.getAbsolutePath(), "--json");
         } catch (IOException e) {
             System.err.println("Error occurred trying to spawn the test runner process (in json mode)");
@@ -62,7 +64,7 @@ public class CSSE1001Test {
         System.err.println(process.getError());
 
         try {
-            process = Execution.runProcess(working, environment, 10000,
+            process = Execution.runProcess("python", working, environment, 10000,
                     PYTHON, runner.getPath());
         } catch (IOException e) {
             System.err.println("Error occurred trying to spawn the test runner process");
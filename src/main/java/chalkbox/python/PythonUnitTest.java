@@ -19,9 +19,9 @@ public class PythonUnitTest {
         String output = collection.getWorking().getUnmaskedPath("results.json");
 
         try {
-            Execution.runProcess(working, 10000, "py.test",
+            Execution.runProcess("pytest", working, 10000, "py.test",
                     "--json=" + output, "-p", "no:cacheprovider");
-            collection.getWorking().refresh();
+            collection.getWorking().refresh("results.json");
             String report = collection.getWorking().getFile("results.json")
                     .getCharContent(true).toString();
             Object data = new Data(report).get("report");
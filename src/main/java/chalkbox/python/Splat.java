@@ -21,7 +21,8 @@ public class Splat {
             description = "Command to execute python from terminal")
     public String PYTHON = "python3";
 
-    @ConfigItem(key = "splat", description = "Path to splat executable")
+    @ConfigItem(key = "splat", input = true,
+            description = "Path to splat executable")
     public File splat;
 
     @Pipe
@@ -33,7 +34,7 @@ public class Splat {
 
         ProcessExecution process;
         try {
-            process = Execution.runProcess(working, environment, 10000,
+            process = Execution.runProcess("splat", working, environment, 10000,
                     PYTHON, "-m", "splat_analysis.cmd",
                     collection.getWorking().getUnmaskedPath(), "-all");
         } catch (IOException e) {
@@ -1,10 +1,18 @@
 package chalkbox2.api;
 
 import chalkbox.api.collections.Data;
+import chalkbox.api.collections.DataPath;
+import chalkbox.api.collections.TypedResults;
+import chalkbox.api.results.Result;
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.function.Function;
 
 
 public class Submission {
@@ -12,6 +20,8 @@ public class Submission {
     private String id = "";
     private Data data = new Data();
     private boolean failed = false;
+    /* Typed results are saved through data, so are not saved themselves */
+    private transient TypedResults typedResults = new TypedResults();
 
 
     public Submission() {
@@ -35,23 +45,74 @@ public class Submission {
 
     public void loadData(String json) {
         this.data = new Data(json);
+        typedResults.clear();
     }
 
     public Data getData() {
         return data;
     }
 
+    /**
+     * Record a typed result, writing it into the data at its path.
+     *
+     * @param path The path of the result in the data.
+     * @param result The result to record.
+     */
+    public void setResult(DataPath path, Result result) {
+        typedResults.set(data, path, result);
+    }
+
+    /**
+     * Get a typed result recorded at a path. Results only present in the
+     * data, e.g. loaded with {@link #loadData(String)}, or written over
+     * since they were recorded are read from it.
+     *
+     * @param path The path of the result in the data.
+     * @param type The type of the result.
+     * @param read Reads the result from its JSON object, e.g. ConformanceResult::of.
+     * @return The result or null if there is no result at the path.
+     */
+    public <T extends Result> T getResult(DataPath path, Class<T> type,
+                                          Function<Data, T> read) {
+        return typedResults.get(data, path, type, read);
+    }
+
     public static void save(Submission submission,
                             String path) throws IOException {
-        var gson = new GsonBuilder().setPrettyPrinting().create();
+        var gson = gson();
         var writer = new FileWriter(path);
         gson.toJson(submission, writer);
         writer.flush();
         writer.close();
     }
 
+    private static Gson gson() {
+        return new GsonBuilder().setPrettyPrinting()
+                .registerTypeAdapter(Data.class, new DataAdapter())
+                .create();
+    }
+
     @Override
     public String toString() {
-        return new GsonBuilder().setPrettyPrinting().create().toJson(this);
+        return gson().toJson(this);
+    }
+
+    /**
+     * Streams data straight into the submission's JSON, nested under "json"
+     * as it was when data was serialized field by field.
+     */
+    private static class DataAdapter extends TypeAdapter<Data> {
+        @Override
+        public void write(JsonWriter out, Data data) throws IOException {
+            out.beginObject();
+            out.name("json");
+            data.write(out);
+            out.endObject();
+        }
+
+        @Override
+        public Data read(JsonReader in) throws IOException {
+            throw new UnsupportedOperationException("Submissions are loaded with loadData");
+        }
     }
 }
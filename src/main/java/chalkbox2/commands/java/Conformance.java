@@ -1,5 +1,6 @@
 package chalkbox2.commands.java;
 
+import chalkbox.api.common.java.ClassLoadingMetrics;
 import chalkbox2.api.Loggable;
 import chalkbox2.api.Saveable;
 import chalkbox2.api.Submission;
@@ -47,6 +48,18 @@ public class Conformance implements Runnable, Loggable, Saveable {
     @Option(names = "--submissions", description = "Folder holding all the submissions.")
     String submissionFolder = "submissions";
 
+    @Option(names = "--cache-folder", description = "Folder to cache compiled classes in between runs.")
+    String cacheFolder = null;
+
+    @Option(names = "--bytecode", description = "Read class files directly rather than loading the classes.")
+    boolean bytecode;
+
+    @Option(names = "--source", description = "Read the source files directly rather than compiling them.")
+    boolean source;
+
+    @Option(names = "--metrics", description = "Record the classes loaded and metaspace used after each submission.")
+    boolean metrics;
+
     @Option(names = "--limit", description = "<Not Implemented> Limit to a single entry.")
     String limit = "";
 
@@ -77,7 +90,11 @@ public class Conformance implements Runnable, Loggable, Saveable {
         ConformanceComponent conformancer = new ConformanceComponent();
         conformancer.setNoInteraction(noInteraction)
                 .setTemplateFolder(templateFolder)
-                .setSubmissionFolder(submissionFolder);
+                .setSubmissionFolder(submissionFolder)
+                .setCacheFolder(cacheFolder)
+                .setBytecode(bytecode)
+                .setSource(source)
+                .setMetrics(metrics);
 
         try {
             conformancer.init();
@@ -106,6 +123,10 @@ public class Conformance implements Runnable, Loggable, Saveable {
                         logger().debug(v.toString());
                     }
                 });
+
+        if (metrics) {
+            logger().info("Class loading: " + ClassLoadingMetrics.snapshot());
+        }
     }
 
     /*
@@ -1,16 +1,26 @@
 package chalkbox2.components.java;
 
 import chalkbox.api.collections.Bundle;
+import chalkbox.api.collections.DataPath;
+import chalkbox.api.common.java.ClassLoadingMetrics;
+import chalkbox.api.common.java.CompilationCache;
 import chalkbox.api.common.java.Compiler;
 import chalkbox.api.files.FileLoader;
+import chalkbox.api.files.SourceFile;
+import chalkbox.api.results.ConformanceResult;
+import chalkbox.java.conformance.Conformance;
+import chalkbox.java.conformance.ClassFileReader;
 import chalkbox.java.conformance.SourceLoader;
+import chalkbox.java.conformance.SourceReader;
 import chalkbox.java.conformance.comparator.ClassComparator;
+import chalkbox.java.conformance.comparator.ClassModel;
 import chalkbox.java.conformance.comparator.CodeComparator;
 import chalkbox2.api.ComponentImpl;
 import chalkbox2.api.Submission;
 
 
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -22,8 +32,12 @@ public class ConformanceComponent extends ComponentImpl {
     boolean noInteraction = false;
     String templateFolder;
     String submissionFolder;
+    CompilationCache cache = new CompilationCache(null);
+    boolean bytecode = false;
+    boolean source = false;
+    boolean metrics = false;
 
-    private Map<String, Class> expectedClasses = new HashMap<>();
+    private Map<String, ClassModel> expectedClasses = new HashMap<>();
     private List<String> expectedFiles = new ArrayList<>();
 
     public ConformanceComponent() {
@@ -44,8 +58,28 @@ public class ConformanceComponent extends ComponentImpl {
         return this;
     }
 
+    public ConformanceComponent setCacheFolder(String cacheFolder) {
+        this.cache = new CompilationCache(cacheFolder == null ? null : new File(cacheFolder));
+        return this;
+    }
+
+    public ConformanceComponent setBytecode(boolean bytecode) {
+        this.bytecode = bytecode;
+        return this;
+    }
+
+    public ConformanceComponent setSource(boolean source) {
+        this.source = source;
+        return this;
+    }
+
+    public ConformanceComponent setMetrics(boolean metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public void init() throws Exception {
-        expectedClasses.putAll(load(templateFolder));
+        expectedClasses.putAll(source ? loadSource(templateFolder, null) : load(templateFolder));
         expectedFiles.addAll(FileLoader.loadFiles(templateFolder));
     }
 
@@ -54,11 +88,12 @@ public class ConformanceComponent extends ComponentImpl {
         var submissionPath = String.join(File.separator, submissionFolder, submission.getId());
 
         List<String> submissionFiles = new ArrayList<>();
-        Map<String, Class> submissionClasses = new HashMap<>();
+        Map<String, ClassModel> submissionClasses = new HashMap<>();
 
         try {
             submissionFiles.addAll(FileLoader.loadFiles(submissionPath));
-            submissionClasses.putAll(load(submissionPath));
+            submissionClasses.putAll(source ? loadSource(submissionPath, submission)
+                    : load(submissionPath));
         } catch (Exception e) {
             submission.setFailed(true);
             submission.getData().set("structure.error", e.toString());
@@ -79,41 +114,73 @@ public class ConformanceComponent extends ComponentImpl {
                 continue;
             }
 
-            String jsonKey = "conformance." + className.replace(".", "\\.") + ".";
-            Class expectedClass = expectedClasses.get(className);
-            Class actualClass = submissionClasses.get(className);
+            DataPath jsonKey = Conformance.CONFORMANCE.resolve(className);
+            ClassModel expectedClass = expectedClasses.get(className);
+            ClassModel actualClass = submissionClasses.get(className);
 
             if (expectedClass == null || actualClass == null) {
-                submission.getData().set(jsonKey + "differs", true);
-                submission.getData().set(jsonKey + "output", "Unable to load class");
+                submission.setResult(jsonKey,
+                        new ConformanceResult(true, "Unable to load class"));
                 continue;
             }
 
-            CodeComparator<Class> comparator = new ClassComparator(expectedClass,
+            CodeComparator<ClassModel> comparator = new ClassComparator(expectedClass,
                     actualClass);
-            submission.getData().set(jsonKey + "differs", comparator.hasDifference());
-            submission.getData().set(jsonKey + "output", comparator.toString());
+            submission.setResult(jsonKey,
+                    new ConformanceResult(comparator.hasDifference(), comparator.toString()));
         }
 
+        if (metrics) {
+            ClassLoadingMetrics.snapshot().set(submission.getData(), Conformance.METRICS);
+        }
         return submission;
     }
 
-    private Map<String, Class> load(String path) throws Exception {
+    private Map<String, ClassModel> load(String path) throws Exception {
         Bundle expected = new Bundle(new File(path));
         StringWriter output = new StringWriter();
-        Bundle out = new Bundle();
+        Map<String, byte[]> classes = new HashMap<>();
 
         //todo: need to introduce the classpath
-        Compiler.compile(Compiler.getSourceFiles(expected), "",
-                out.getUnmaskedPath(), output);
+        cache.compile(Compiler.getSourceFiles(expected), "", classes, output);
 
         String compilerOutput = output.toString();
         if (!compilerOutput.isEmpty()) {
             throw new Exception(compilerOutput);
         }
 
-        SourceLoader expectedLoader = new SourceLoader(out.getUnmaskedPath());
-        return expectedLoader.getClassMap();
+        if (bytecode) {
+            return new ClassFileReader(classes).getClassMap();
+        }
+
+        /* Only the models are kept, so the loader can be unloaded once they are built */
+        return new SourceLoader(classes).getModelMap();
     }
 
+    /**
+     * Read the signatures of classes from their source without compiling
+     * them. Files which cannot be parsed fail the template, but are only
+     * reported for a submission so the rest of it is still compared.
+     */
+    private Map<String, ClassModel> loadSource(String path, Submission submission)
+            throws Exception {
+        List<SourceFile> files = Compiler.getSourceFiles(new Bundle(new File(path)));
+        if (files == null) {
+            throw new IOException("Unable to read source files in " + path);
+        }
+
+        SourceReader reader = new SourceReader(files);
+        if (!reader.getProblems().isEmpty()) {
+            StringBuilder problems = new StringBuilder();
+            for (Map.Entry<String, String> problem : reader.getProblems().entrySet()) {
+                problems.append(problem.getKey()).append(": ").append(problem.getValue())
+                        .append(System.lineSeparator());
+            }
+            if (submission == null) {
+                throw new Exception(problems.toString());
+            }
+            submission.getData().set("conformance.error", problems.toString());
+        }
+        return reader.getClassMap();
+    }
 }
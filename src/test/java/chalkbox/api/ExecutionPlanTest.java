@@ -0,0 +1,75 @@
+package chalkbox.api;
+
+import chalkbox.api.annotations.Processor;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExecutionPlanTest {
+
+    @Processor
+    public static class Shared {
+    }
+
+    @Processor(depends = {Shared.class})
+    public static class Left {
+    }
+
+    @Processor(depends = {Shared.class})
+    public static class Right {
+    }
+
+    @Processor(depends = {Left.class, Right.class, Shared.class})
+    public static class Root {
+    }
+
+    @Processor(depends = {Cyclic.class})
+    public static class Cyclic {
+    }
+
+    public static class NotProcessor {
+    }
+
+    @Processor(depends = {NotProcessor.class})
+    public static class BadDependency {
+    }
+
+    @Test
+    public void testSharedDependencyPlannedOnce() {
+        ExecutionPlan plan = ExecutionPlan.plan(Root.class);
+
+        List<Class<?>> order = plan.getOrder();
+        assertEquals(Arrays.asList(Shared.class, Left.class, Right.class, Root.class), order);
+    }
+
+    @Test
+    public void testIndependentBranchesShareStage() {
+        ExecutionPlan plan = ExecutionPlan.plan(Root.class);
+
+        List<List<Class<?>>> stages = plan.getStages();
+        assertEquals(3, stages.size());
+        assertEquals(Arrays.asList(Shared.class), stages.get(0));
+        assertEquals(Arrays.asList(Left.class, Right.class), stages.get(1));
+        assertEquals(Arrays.asList(Root.class), stages.get(2));
+    }
+
+    @Test
+    public void testNoDependencies() {
+        ExecutionPlan plan = ExecutionPlan.plan(Shared.class);
+
+        assertEquals(Arrays.asList(Shared.class), plan.getOrder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCycle() {
+        ExecutionPlan.plan(Cyclic.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingAnnotation() {
+        ExecutionPlan.plan(BadDependency.class);
+    }
+}
@@ -0,0 +1,65 @@
+package chalkbox.api;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProcessRunnerTest {
+
+    public Object slowIdentity(Object item) throws InterruptedException {
+        int value = (Integer) item;
+        /* Make early items slower so that they finish last */
+        Thread.sleep(value < 4 ? 50 : 1);
+        return value;
+    }
+
+    public Object failOnOdd(Object item) {
+        if ((Integer) item % 2 == 1) {
+            throw new IllegalArgumentException("odd item");
+        }
+        return item;
+    }
+
+    private static List<Object> range(int size) {
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    @Test
+    public void testOrderPreserved() throws NoSuchMethodException {
+        Method method = getClass().getMethod("slowIdentity", Object.class);
+
+        List<Object> results = ProcessRunner.executeProcess(range(40), this, method, 4);
+
+        assertEquals(range(40), results);
+    }
+
+    @Test
+    public void testSingleThread() throws NoSuchMethodException {
+        Method method = getClass().getMethod("slowIdentity", Object.class);
+
+        List<Object> results = ProcessRunner.executeProcess(range(10), this, method, 1);
+
+        assertEquals(range(10), results);
+    }
+
+    @Test
+    public void testFailedItemsOmitted() throws NoSuchMethodException {
+        Method method = getClass().getMethod("failOnOdd", Object.class);
+
+        List<Object> results = ProcessRunner.executeProcess(range(6), this, method, 3);
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(0);
+        expected.add(2);
+        expected.add(4);
+        assertEquals(expected, results);
+    }
+}
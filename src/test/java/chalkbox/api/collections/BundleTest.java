@@ -0,0 +1,78 @@
+package chalkbox.api.collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the file index of bundles is kept up to date
+ */
+public class BundleTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Bundle bundle;
+
+    @Before
+    public void setUp() throws IOException {
+        folder.newFolder("src", "pkg");
+        folder.newFile("src/pkg/Main.java");
+        folder.newFile("src/pkg/Main.txt");
+        folder.newFile(".hidden.java");
+        bundle = new Bundle(folder.getRoot());
+    }
+
+    private static HashSet<String> set(String... files) {
+        return new HashSet<>(Arrays.asList(files));
+    }
+
+    @Test
+    public void testExtensions() throws IOException {
+        assertEquals(Collections.singletonList("src/pkg/Main.java"), bundle.getFileNames(".java"));
+        assertEquals(Collections.singletonList("src/pkg/Main.txt"), bundle.getFileNames("Main.txt"));
+        assertEquals(set("src/pkg/Main.java", "src/pkg/Main.txt"), new HashSet<>(bundle.getFileNames()));
+        assertEquals(Collections.singletonList("pkg.Main"), bundle.getClasses("src"));
+        assertEquals("/src/pkg/Main.java", bundle.getFile("src/pkg/Main.java").getName());
+    }
+
+    @Test
+    public void testRefreshSubtree() throws IOException {
+        assertTrue(bundle.makeDir("bin"));
+        folder.newFolder("bin", "pkg");
+        folder.newFile("bin/pkg/Main.class");
+        folder.newFile("Other.class");
+        assertTrue(bundle.getFileNames(".class").isEmpty());
+
+        bundle.refresh("bin");
+        assertEquals(Collections.singletonList("bin/pkg/Main.class"), bundle.getFileNames(".class"));
+
+        new File(folder.getRoot(), "bin/pkg/Main.class").delete();
+        bundle.refresh("bin/pkg");
+        bundle.refresh();
+        assertEquals(Collections.singletonList("Other.class"), bundle.getFileNames(".class"));
+    }
+
+    @Test
+    public void testWrites() throws IOException {
+        File other = folder.newFolder("other");
+        new File(other, "lib").mkdir();
+        new File(other, "lib/Util.java").createNewFile();
+        bundle.copyFolder(other);
+        assertTrue(bundle.getFileNames(".java").contains("lib/Util.java"));
+
+        assertTrue(bundle.deleteFile("lib/Util.java"));
+        assertFalse(bundle.getFileNames().contains("lib/Util.java"));
+        assertFalse(bundle.deleteFile("lib/Util.java"));
+    }
+}
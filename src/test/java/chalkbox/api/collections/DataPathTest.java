@@ -0,0 +1,66 @@
+package chalkbox.api.collections;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test parsing dotted keys into data paths
+ */
+public class DataPathTest {
+    /**
+     * Assert a key is split in the same way as the regex it replaces
+     */
+    private static void assertParsed(String key) {
+        String[] expected = key.split("(?<!\\\\)\\.");
+        DataPath path = DataPath.of(key);
+        assertEquals(key, Math.max(expected.length, 1), path.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(key, expected[i].replace("\\.", "."), path.get(i));
+        }
+    }
+
+    @Test
+    public void testParse() {
+        assertParsed("compilation");
+        assertParsed("compilation.compiles");
+        assertParsed("conformance.chalkbox\\.Main.differs");
+        assertParsed("a\\.b\\.c");
+        assertParsed("a\\\\.b");
+        assertParsed(".a");
+        assertParsed("a..b");
+        assertParsed("a.b.");
+    }
+
+    @Test
+    public void testInterned() {
+        assertSame(DataPath.of("tests.passes"), DataPath.of("tests.passes"));
+        DataPath tests = DataPath.of("tests");
+        assertSame(tests.resolve("chalkbox.Main"), tests.resolve("chalkbox.Main"));
+    }
+
+    @Test
+    public void testResolveEscapes() {
+        DataPath path = DataPath.of("tests").resolve("chalkbox.Main").resolve("passes");
+        assertEquals("tests.chalkbox\\.Main.passes", path.toString());
+        assertEquals(DataPath.of("tests.chalkbox\\.Main.passes"), path);
+        assertEquals("chalkbox.Main", path.get(1));
+    }
+
+    @Test
+    public void testDataAccess() {
+        Data data = new Data();
+        DataPath path = DataPath.of("tests").resolve("chalkbox.Main").resolve("passes");
+        data.set(path, 3);
+        assertEquals(3, data.get("tests.chalkbox\\.Main.passes"));
+        assertEquals(3, data.get(path));
+        assertTrue(data.keys("tests").contains("chalkbox.Main"));
+
+        data.set("tests.chalkbox\\.Main.compiles", true);
+        assertTrue(data.is(DataPath.of("tests").resolve("chalkbox.Main").resolve("compiles")));
+        assertNull(data.get(DataPath.of("missing.key")));
+    }
+}
@@ -0,0 +1,104 @@
+package chalkbox.api.collections;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test reading, writing and copying data collections
+ */
+public class DataTest {
+    @Test
+    public void testRoundTrip() {
+        String json = "{\"sid\":\"s123\",\"tests\":{\"chalkbox.Main\":{\"passes\":3,"
+                + "\"output\":\"line\\n\\\"quoted\\\"\"}},\"mark\":1.5,"
+                + "\"missing\":[\"a\",\"b\"],\"empty\":null,\"compiles\":true}";
+        Data data = new Data(json);
+        assertEquals(3L, data.get("tests.chalkbox\\.Main.passes"));
+        assertEquals("line\n\"quoted\"", data.get("tests.chalkbox\\.Main.output"));
+        assertEquals(1.5, data.get("mark"));
+        assertEquals(Arrays.asList("a", "b"), data.get("missing"));
+        assertTrue(data.is("compiles"));
+        assertEquals(json, data.toString());
+    }
+
+    @Test
+    public void testInvalidJson() {
+        assertEquals("{}", new Data("not json").toString());
+        assertEquals("{}", new Data("[1, 2]").toString());
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        Data original = new Data();
+        original.set("tests.a.passes", 1);
+        original.set("tests.b.passes", 2);
+
+        Data copy = new Data(original);
+        copy.set("tests.a.passes", 10);
+        copy.set("grades.total", 5);
+        original.set("tests.b.passes", 20);
+
+        assertEquals(1, original.get("tests.a.passes"));
+        assertEquals(20, original.get("tests.b.passes"));
+        assertNull(original.get("grades.total"));
+        assertEquals(10, copy.get("tests.a.passes"));
+        assertEquals(2, copy.get("tests.b.passes"));
+        assertEquals(5, copy.get("grades.total"));
+    }
+
+    @Test
+    public void testNestedData() {
+        Data inner = new Data();
+        inner.set("passes", 1);
+        Data outer = new Data();
+        outer.set("tests.a", inner);
+        inner.set("passes", 2);
+
+        assertEquals(1, outer.get("tests.a.passes"));
+
+        Data view = (Data) outer.get("tests.a");
+        view.set("passes", 3);
+        assertEquals(3, view.get("passes"));
+        assertEquals(1, outer.get("tests.a.passes"));
+        assertEquals("{\"tests\":{\"a\":{\"passes\":1}}}", outer.toString());
+    }
+
+    @Test
+    public void testCollectionsCopied() {
+        List<String> missing = new ArrayList<>(Arrays.asList("a", "b"));
+        Data original = new Data();
+        original.set("structure.missing", missing);
+        Data copy = new Data(original);
+        missing.add("c");
+
+        assertEquals(Arrays.asList("a", "b"), original.get("structure.missing"));
+        assertEquals(Arrays.asList("a", "b"), copy.get("structure.missing"));
+        try {
+            ((List<?>) copy.get("structure.missing")).clear();
+            fail("Stored lists should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(2, ((List<?>) original.get("structure.missing")).size());
+        }
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        Data data = new Data();
+        data.set("output", "a/b\u0001");
+        data.set("nan", Double.NaN);
+        data.set("list", Arrays.asList(1, "two"));
+        StringWriter writer = new StringWriter();
+        data.write(writer);
+        assertEquals("{\"output\":\"a/b\\u0001\",\"nan\":null,\"list\":[1,\"two\"]}",
+                writer.toString());
+    }
+}
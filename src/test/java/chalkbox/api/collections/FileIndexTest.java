@@ -0,0 +1,102 @@
+package chalkbox.api.collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the file index only rescans dirty paths and looks up extensions
+ */
+public class FileIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        folder.newFolder("src", "pkg");
+        folder.newFolder("src2");
+        folder.newFolder(".git");
+        folder.newFile("src/pkg/Main.java");
+        folder.newFile("src/pkg/notes.tar.gz");
+        folder.newFile("src2/Other.java");
+        folder.newFile(".git/config.java");
+        index = new FileIndex(folder.getRoot());
+        index.invalidate("");
+    }
+
+    private static HashSet<String> set(String... files) {
+        return new HashSet<>(Arrays.asList(files));
+    }
+
+    private static HashSet<String> set(List<String> files) {
+        return new HashSet<>(files);
+    }
+
+    @Test
+    public void testScan() {
+        assertEquals(set("src/pkg/Main.java", "src/pkg/notes.tar.gz", "src2/Other.java"),
+                set(index.list()));
+        assertTrue(index.contains("src/pkg/Main.java"));
+        assertFalse(index.contains(".git/config.java"));
+    }
+
+    @Test
+    public void testSuffixes() {
+        assertEquals(set("src/pkg/Main.java", "src2/Other.java"), set(index.list(".java")));
+        assertEquals(Collections.singletonList("src/pkg/notes.tar.gz"), index.list(".tar.gz"));
+        assertEquals(Collections.singletonList("src/pkg/notes.tar.gz"), index.list(".gz"));
+        assertEquals(Collections.singletonList("src2/Other.java"), index.list("/Other.java"));
+        assertTrue(index.list(".class").isEmpty());
+        assertEquals(3, index.list("").size());
+    }
+
+    @Test
+    public void testOnlyDirtyPathsScanned() throws IOException {
+        index.list();
+        folder.newFile("src/pkg/Main.class");
+        folder.newFile("src2/Other.class");
+
+        index.invalidate("src/");
+        assertEquals(Collections.singletonList("src/pkg/Main.class"), index.list(".class"));
+
+        index.invalidate("src/pkg/Main.class");
+        index.invalidate("src2/Other.class");
+        assertEquals(set("src/pkg/Main.class", "src2/Other.class"), set(index.list(".class")));
+    }
+
+    @Test
+    public void testDeletedWhileDirty() {
+        index.list();
+        new File(folder.getRoot(), "src/pkg/Main.java").delete();
+        index.invalidate("src/pkg");
+        index.invalidate("src/pkg/Main.java");
+        assertEquals(Collections.singletonList("src2/Other.java"), index.list(".java"));
+    }
+
+    @Test
+    public void testWrittenFiles() {
+        index.list();
+        index.add("/src/pkg/Util.java");
+        index.add(".hidden.java");
+        assertEquals(set("src/pkg/Main.java", "src/pkg/Util.java", "src2/Other.java"),
+                set(index.list(".java")));
+
+        index.remove("src");
+        assertEquals(Collections.singletonList("src2/Other.java"), index.list(".java"));
+        assertTrue(index.list(".gz").isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package chalkbox.api.collections;
+
+import chalkbox.api.results.CompilationResult;
+import chalkbox.api.results.TestResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test typed results are only reused while the data they wrote is unchanged
+ */
+public class TypedResultsTest {
+    private static final DataPath PATH = DataPath.of("results.compilation");
+
+    private Data data;
+    private TypedResults results;
+    private CompilationResult recorded;
+
+    @Before
+    public void setUp() {
+        data = new Data();
+        results = new TypedResults();
+        recorded = new CompilationResult(true, "");
+        results.set(data, PATH, recorded);
+    }
+
+    private CompilationResult get() {
+        return results.get(data, PATH, CompilationResult.class, CompilationResult::of);
+    }
+
+    @Test
+    public void testUnchanged() {
+        data.set("sid", "s123");
+        data.set("results.style.compiles", false);
+        assertSame(recorded, get());
+    }
+
+    @Test
+    public void testWrittenWithin() {
+        data.set("results.compilation.compiles", false);
+        assertFalse(get().compiles());
+    }
+
+    @Test
+    public void testWrittenOver() {
+        Data replaced = new Data();
+        replaced.set("output", "error");
+        data.set(PATH, replaced);
+        assertFalse(get().compiles());
+        assertEquals("error", get().getOutput());
+    }
+
+    @Test
+    public void testParentWrittenOver() {
+        data.set("results", "removed");
+        assertNull(get());
+
+        results.set(data, PATH, recorded);
+        assertTrue(get().compiles());
+    }
+
+    @Test
+    public void testTestResultRoundTrip() {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        timings.put("testArea(shape.ShapeTest)", 12L);
+        timings.put("testScale(shape.ShapeTest)", 3L);
+        DataPath path = DataPath.of("results.tests").resolve("shape.ShapeTest");
+        results.set(data, path, new TestResult(1, 1, 2, "testScale failed", "", timings));
+
+        /* Read both as written and from JSON, as after being saved and loaded */
+        for (Data read : new Data[] {data, new Data(data.toString())}) {
+            TestResult result = TestResult.of((Data) read.get(path));
+            assertEquals(2, result.getTotal());
+            assertEquals("testScale failed", result.getOutput());
+            assertEquals(timings, result.getTimings());
+        }
+    }
+}
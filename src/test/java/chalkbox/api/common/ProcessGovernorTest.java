@@ -0,0 +1,132 @@
+package chalkbox.api.common;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the governor only admits processes within its limits
+ */
+public class ProcessGovernorTest {
+    private ProcessGovernor governor;
+
+    @Before
+    public void setUp() {
+        governor = new ProcessGovernor();
+        assertTrue(governor.configure(Map.of("processes", "2", "memoryLimit", "1024")));
+    }
+
+    /**
+     * Assert whether a process of a tool is admitted without waiting,
+     * releasing its slot straight away.
+     */
+    private void assertAdmits(boolean admitted, String tool) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> acquired = executor.submit(() -> {
+                governor.acquire(tool).close();
+                return null;
+            });
+            try {
+                acquired.get(200, TimeUnit.MILLISECONDS);
+                assertTrue(tool + " should wait", admitted);
+            } catch (TimeoutException e) {
+                assertFalse(tool + " should be admitted", admitted);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testProcessLimit() throws Exception {
+        ProcessGovernor.Slot first = governor.acquire("junit");
+        ProcessGovernor.Slot second = governor.acquire("checkstyle");
+        assertAdmits(false, "python");
+
+        second.close();
+        assertAdmits(true, "python");
+        first.close();
+    }
+
+    @Test
+    public void testToolLimit() throws Exception {
+        assertTrue(governor.configure(Map.of("processes.junit", "1")));
+        ProcessGovernor.Slot slot = governor.acquire("junit");
+        assertAdmits(false, "junit");
+        assertAdmits(true, "checkstyle");
+
+        slot.close();
+        assertAdmits(true, "junit");
+    }
+
+    @Test
+    public void testMemoryLimit() throws Exception {
+        assertTrue(governor.configure(Map.of("memory.junit", "800")));
+        ProcessGovernor.Slot slot = governor.acquire("junit");
+        assertAdmits(false, "checkstyle");
+        assertAdmits(true, "python");
+        slot.close();
+    }
+
+    @Test
+    public void testAlwaysAdmitsFirst() throws Exception {
+        assertTrue(governor.configure(Map.of("memory.junit", "4096")));
+        assertAdmits(true, "junit");
+    }
+
+    @Test
+    public void testCloseTwice() throws Exception {
+        ProcessGovernor.Slot slot = governor.acquire("junit");
+        slot.close();
+        slot.close();
+
+        ProcessGovernor.Slot first = governor.acquire("junit");
+        ProcessGovernor.Slot second = governor.acquire("junit");
+        assertAdmits(false, "junit");
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testInvalidLimit() {
+        assertFalse(governor.configure(Map.of("processes", "many")));
+    }
+
+    @Test
+    public void testRaisedLimitWakesWaiting() throws Exception {
+        ProcessGovernor.Slot first = governor.acquire("junit");
+        ProcessGovernor.Slot second = governor.acquire("junit");
+
+        Thread waiting = new Thread(() -> {
+            try {
+                governor.acquire("junit").close();
+            } catch (InterruptedException e) {
+                /* Reported as the thread still running */
+            }
+        });
+        waiting.setDaemon(true);
+        waiting.start();
+        waiting.join(200);
+        assertTrue(waiting.isAlive());
+
+        assertTrue(governor.configure(Map.of("processes", "3")));
+        waiting.join(5000);
+        if (waiting.isAlive()) {
+            waiting.interrupt();
+            fail("Raising the limit should admit waiting processes");
+        }
+        first.close();
+        second.close();
+    }
+}
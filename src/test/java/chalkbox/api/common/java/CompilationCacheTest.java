@@ -0,0 +1,122 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.files.FileSourceFile;
+import chalkbox.api.files.SourceFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test compilations are cached by the contents of their sources and class
+ * path, and not by where the sources are
+ */
+public class CompilationCacheTest {
+    private static final String SHAPE = "package shape;\n"
+            + "public class Shape { public int area() { return 1; } }\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheDirectory;
+    private File library;
+    private CompilationCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDirectory = folder.newFolder("cache");
+        library = folder.newFolder("library");
+        cache = new CompilationCache(cacheDirectory);
+    }
+
+    /**
+     * Write the source of the shape.Shape class within a submission.
+     */
+    private List<SourceFile> submission(String name, String source) throws IOException {
+        File file = new File(folder.getRoot(), name + "/src/shape/Shape.java");
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        return List.of(new FileSourceFile("src/shape/Shape.java", file));
+    }
+
+    private boolean compile(List<SourceFile> files, String name) throws IOException {
+        File submission = new File(folder.getRoot(), name);
+        return cache.compile(files, new File(submission, "src").getPath(),
+                library.getPath(), new File(submission, "bin").getPath(), new StringWriter());
+    }
+
+    private int entries() {
+        return cacheDirectory.list().length;
+    }
+
+    @Test
+    public void testSameSourceElsewhere() throws IOException {
+        assertTrue(compile(submission("first", SHAPE), "first"));
+        assertTrue(compile(submission("second", SHAPE), "second"));
+        assertEquals(1, entries());
+
+        byte[] compiled = Files.readAllBytes(
+                folder.getRoot().toPath().resolve("first/bin/shape/Shape.class"));
+        byte[] cached = Files.readAllBytes(
+                folder.getRoot().toPath().resolve("second/bin/shape/Shape.class"));
+        assertArrayEquals(compiled, cached);
+    }
+
+    @Test
+    public void testChangedSource() throws IOException {
+        assertTrue(compile(submission("first", SHAPE), "first"));
+        assertTrue(compile(submission("second", SHAPE.replace("1", "2")), "second"));
+        assertEquals(2, entries());
+    }
+
+    @Test
+    public void testChangedClassPath() throws IOException {
+        assertTrue(compile(submission("first", SHAPE), "first"));
+        Files.write(library.toPath().resolve("Other.class"), new byte[] {1});
+
+        /* Class path entries are fingerprinted once per cache */
+        cache = new CompilationCache(cacheDirectory);
+        assertTrue(compile(submission("first", SHAPE), "first"));
+        assertEquals(2, entries());
+    }
+
+    @Test
+    public void testFailureCached() throws IOException {
+        List<SourceFile> broken = submission("first", "package shape; class Shape {");
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        assertFalse(cache.compile(broken, library.getPath(), new HashMap<>(), first));
+        assertFalse(cache.compile(broken, library.getPath(), new HashMap<>(), second));
+
+        assertEquals(1, entries());
+        assertFalse(first.toString().isEmpty());
+        assertEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    public void testInMemory() throws IOException {
+        Map<String, byte[]> first = new HashMap<>();
+        Map<String, byte[]> second = new HashMap<>();
+        List<SourceFile> files = submission("first", SHAPE);
+        assertTrue(cache.compile(files, library.getPath(), first, new StringWriter()));
+        assertTrue(cache.compile(files, library.getPath(), second, new StringWriter()));
+
+        assertEquals(1, entries());
+        assertEquals(first.keySet(), second.keySet());
+        assertArrayEquals(first.get("shape.Shape"), second.get("shape.Shape"));
+    }
+}
@@ -0,0 +1,101 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.collections.Data;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test results are read back from a result stream as they were written
+ */
+public class JUnitResultTest {
+    private static final String TRACE = "java.lang.AssertionError: expected:<1>\n"
+            + "\tat shape.ShapeTest.testScale(ShapeTest.java:12)\r\n"
+            + "\tat C:\\path\\to\\junit.jar";
+
+    private JUnitResult result;
+
+    @Before
+    public void setUp() {
+        result = new JUnitResult();
+        result.add(new JUnitResult.TestCase("testArea(shape.ShapeTest)", true, 12, ""));
+        result.add(new JUnitResult.TestCase("testScale(shape.ShapeTest)", false, 3, TRACE));
+    }
+
+    private static void assertSameResult(JUnitResult expected, JUnitResult actual) {
+        assertEquals(expected.getErrors(), actual.getErrors());
+        List<JUnitResult.TestCase> tests = actual.getTests();
+        assertEquals(expected.getTests().size(), tests.size());
+        for (int i = 0; i < tests.size(); i++) {
+            JUnitResult.TestCase test = expected.getTests().get(i);
+            assertEquals(test.getName(), tests.get(i).getName());
+            assertEquals(test.isPassed(), tests.get(i).isPassed());
+            assertEquals(test.getDuration(), tests.get(i).getDuration());
+            assertEquals(test.getMessage(), tests.get(i).getMessage());
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        result.setErrors("printed\twith a tab\n");
+        assertSameResult(result, JUnitResult.parse(result.serialize()));
+    }
+
+    @Test
+    public void testOtherOutputIgnored() {
+        String stream = "Picked up JAVA_TOOL_OPTIONS\ntest\tnot enough fields\n"
+                + result.serialize() + "printed after the results\n";
+        assertSameResult(result, JUnitResult.parse(stream));
+    }
+
+    @Test
+    public void testUnfinished() {
+        String stream = result.serialize();
+        assertNull(JUnitResult.parse(stream.substring(0, stream.indexOf("end"))));
+    }
+
+    @Test
+    public void testLongMessageTruncated() {
+        JUnitResult verbose = new JUnitResult();
+        verbose.add(new JUnitResult.TestCase("testLoop", false, 1, "x".repeat(100000)));
+        String message = JUnitResult.parse(verbose.serialize()).getTests().get(0).getMessage();
+        assertTrue(message.length() < 10000);
+        assertTrue(message.endsWith("(truncated)"));
+    }
+
+    @Test
+    public void testBatch() {
+        JUnitResult failed = new JUnitResult();
+        failed.setErrors("Unable to load test class shape.OtherTest");
+        JUnitResult died = new JUnitResult();
+        died.add(new JUnitResult.TestCase("testExit", true, 1, ""));
+
+        String dying = died.serialize("shape.ExitTest");
+        String stream = result.serialize("shape.ShapeTest") + failed.serialize("shape.OtherTest")
+                + dying.substring(0, dying.indexOf("end"));
+        Map<String, JUnitResult> batch = JUnitResult.parseBatch(stream);
+
+        assertEquals(List.of("shape.ShapeTest", "shape.OtherTest"), List.copyOf(batch.keySet()));
+        assertSameResult(result, batch.get("shape.ShapeTest"));
+        assertSameResult(failed, batch.get("shape.OtherTest"));
+        assertFalse(batch.get("shape.OtherTest").wasExecuted());
+    }
+
+    @Test
+    public void testToData() {
+        Data data = result.toData();
+        assertEquals(1, ((Number) data.get("passes")).intValue());
+        assertEquals(1, ((Number) data.get("fails")).intValue());
+        assertEquals(2, ((Number) data.get("total")).intValue());
+        String output = data.get("output").toString();
+        assertTrue(output.startsWith("testScale(shape.ShapeTest)"));
+        assertTrue(output.contains(TRACE));
+    }
+}
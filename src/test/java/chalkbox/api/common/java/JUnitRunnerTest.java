@@ -0,0 +1,105 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.common.Execution;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test batches of test classes executed by the reporter give the same
+ * results as executing each class on its own
+ */
+public class JUnitRunnerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final int outputLimit = Execution.getOutputLimit();
+
+    /** Tests executed by the reporter, which pass */
+    public static class Passing {
+        @Test
+        public void testPass() {
+
+        }
+    }
+
+    /** Tests executed by the reporter, which print and fail */
+    public static class Failing {
+        @Test
+        public void testFail() {
+            System.out.println("printed by a test");
+            fail("failed by a test");
+        }
+
+        @Test
+        public void testPass() {
+
+        }
+    }
+
+    /** Tests executed by the reporter, which try to exit the JVM */
+    public static class Exiting {
+        @Test
+        public void testExit() {
+            System.exit(1);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        Execution.setOutputLimit(outputLimit);
+    }
+
+    private Map<String, Data> run() {
+        Map<String, String> classPaths = new LinkedHashMap<>();
+        for (Class<?> fixture : List.of(Passing.class, Failing.class, Exiting.class)) {
+            classPaths.put(fixture.getName(), System.getProperty("java.class.path"));
+        }
+        return JUnitRunner.runTests(classPaths, folder.getRoot());
+    }
+
+    private static int count(Data result, String key) {
+        return ((Number) result.get(key)).intValue();
+    }
+
+    private static void assertResults(Map<String, Data> results) {
+        assertEquals(List.of(Passing.class.getName(), Failing.class.getName(),
+                Exiting.class.getName()), List.copyOf(results.keySet()));
+
+        Data passing = results.get(Passing.class.getName());
+        assertEquals(1, count(passing, "passes"));
+        assertEquals(0, count(passing, "fails"));
+
+        Data failing = results.get(Failing.class.getName());
+        assertEquals(1, count(failing, "passes"));
+        assertEquals(1, count(failing, "fails"));
+        assertTrue(failing.get("output").toString().contains("failed by a test"));
+        assertTrue(failing.get("errors").toString().contains("printed by a test"));
+
+        Data exiting = results.get(Exiting.class.getName());
+        assertEquals(1, count(exiting, "fails"));
+        assertTrue(exiting.get("output").toString().contains("System.exit(1)"));
+    }
+
+    @Test
+    public void testBatch() {
+        assertResults(run());
+    }
+
+    @Test
+    public void testClassPerBatch() {
+        /* Only room for the results of one class at a time */
+        Execution.setOutputLimit(256 * 1024);
+        assertResults(run());
+    }
+}
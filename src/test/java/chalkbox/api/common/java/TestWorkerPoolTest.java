@@ -0,0 +1,87 @@
+package chalkbox.api.common.java;
+
+import chalkbox.api.collections.Data;
+import chalkbox.api.common.ProcessGovernor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test workers run in the working directory of jobs and only hold a
+ * governor slot while executing a job
+ */
+public class TestWorkerPoolTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestWorkerPool pool;
+
+    /**
+     * Tests executed by the workers, which pass iff they are run in a
+     * directory containing a marker file.
+     */
+    public static class Fixture {
+        @Test
+        public void testMarker() {
+            assertTrue(new File("marker").exists());
+        }
+    }
+
+    @Before
+    public void setUp() {
+        pool = new TestWorkerPool(1, 10);
+        ProcessGovernor.shared().configure(Map.of("processes", "1"));
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+        ProcessGovernor.shared().configure(Map.of("processes",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+
+    private Data run(File working) {
+        return pool.runTest(Fixture.class.getName(),
+                System.getProperty("java.class.path"), working);
+    }
+
+    @Test
+    public void testWorkingDirectory() throws IOException {
+        File marked = folder.newFolder("marked");
+        new File(marked, "marker").createNewFile();
+        File unmarked = folder.newFolder("unmarked");
+
+        assertEquals(1L, run(marked).get("passes"));
+        assertEquals(1L, run(unmarked).get("fails"));
+        assertEquals(1L, run(marked).get("passes"));
+    }
+
+    @Test
+    public void testIdleWorkerHoldsNoSlot() throws InterruptedException {
+        run(folder.getRoot());
+
+        Thread other = new Thread(() -> {
+            try {
+                ProcessGovernor.shared().acquire("checkstyle").close();
+            } catch (InterruptedException e) {
+                /* Reported as the thread still running */
+            }
+        });
+        other.setDaemon(true);
+        other.start();
+        other.join(5000);
+        boolean blocked = other.isAlive();
+        other.interrupt();
+        assertFalse(blocked);
+    }
+}
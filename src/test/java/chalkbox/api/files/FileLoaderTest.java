@@ -0,0 +1,99 @@
+package chalkbox.api.files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test the filters of the file loader and that parallel scans find the same
+ * files in the same order
+ */
+public class FileLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.getRoot().getPath();
+        folder.newFolder("s1", "src", "pkg");
+        folder.newFolder("s1", ".git");
+        folder.newFile("s1/src/pkg/Main.java");
+        folder.newFile("s1/src/pkg/MainTest.java");
+        folder.newFile("s1/src/pkg/Main.class");
+        folder.newFile("s1/.git/Hidden.java");
+        folder.newFile("s1/.Hidden.java");
+        folder.newFile("README.md");
+    }
+
+    private static HashSet<String> set(String... files) {
+        return new HashSet<>(Arrays.asList(files));
+    }
+
+    private static HashSet<String> set(List<String> files) {
+        return new HashSet<>(files);
+    }
+
+    @Test
+    public void testRecursive() {
+        assertEquals(set("s1/src/pkg/Main.java", "s1/src/pkg/MainTest.java",
+                "s1/src/pkg/Main.class", "README.md"), set(FileLoader.loadFiles(root)));
+    }
+
+    @Test
+    public void testHidden() {
+        FileLoader loader = new FileLoader(root, "", ".java").ignoreHiddenFiles(false);
+        assertEquals(set("s1/src/pkg/Main.java", "s1/src/pkg/MainTest.java",
+                "s1/.git/Hidden.java", "s1/.Hidden.java"),
+                set(loader.loadFiles(folder.getRoot())));
+    }
+
+    @Test
+    public void testPrefixAndSuffix() {
+        FileLoader loader = new FileLoader(root, "Main", "Test.java");
+        loader.setRemoveSuffix(true);
+        assertEquals(List.of("s1/src/pkg/Main"), loader.loadFiles(folder.getRoot()));
+    }
+
+    @Test
+    public void testNotRecursive() {
+        FileLoader loader = new FileLoader(root, false);
+        assertEquals(set("s1/", "README.md"), set(loader.loadFiles(folder.getRoot())));
+
+        File pkg = new File(folder.getRoot(), "s1/src/pkg");
+        assertEquals(set("s1/src/pkg/Main.java", "s1/src/pkg/MainTest.java",
+                "s1/src/pkg/Main.class"), set(loader.loadFiles(pkg)));
+    }
+
+    @Test
+    public void testGlob() {
+        FileLoader loader = new FileLoader(root).setGlob("*/src/**.{java,md}");
+        assertEquals(set("s1/src/pkg/Main.java", "s1/src/pkg/MainTest.java"),
+                set(loader.loadFiles(folder.getRoot())));
+    }
+
+    @Test
+    public void testParallel() throws IOException {
+        for (int i = 0; i < 40; i++) {
+            folder.newFolder("submission" + i, "src");
+            folder.newFile("submission" + i + "/src/Main.java");
+            folder.newFile("submission" + i + "/Notes" + i + ".txt");
+        }
+
+        List<String> sequential = new FileLoader(root).loadFiles(folder.getRoot());
+        List<String> parallel = new FileLoader(root).setParallel(true)
+                .loadFiles(folder.getRoot());
+        assertEquals(sequential, parallel);
+        assertEquals(84, parallel.size());
+    }
+}
@@ -0,0 +1,144 @@
+package chalkbox.java.conformance;
+
+import chalkbox.api.collections.Bundle;
+import chalkbox.api.common.java.Compiler;
+import chalkbox.api.files.SourceFile;
+import chalkbox.java.conformance.comparator.ClassComparator;
+import chalkbox.java.conformance.comparator.ClassModel;
+import chalkbox.java.conformance.comparator.MemberModel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that loading classes, reading their class files and reading their
+ * source all model a class the same way
+ */
+public class ConformanceModesTest {
+    /** Generics, default and static interface methods, bridges, varargs, nested classes and enums */
+    private static final String FIXTURE = "src/test/resources/conformance";
+
+    private static Map<String, ClassModel> reflection;
+    private static Map<String, ClassModel> bytecode;
+    private static Map<String, ClassModel> source;
+
+    @BeforeClass
+    public static void loadModels() throws Exception {
+        List<SourceFile> files = Compiler.getSourceFiles(new Bundle(new File(FIXTURE)));
+        Map<String, byte[]> classes = new HashMap<>();
+        StringWriter output = new StringWriter();
+        assertTrue(output.toString(), Compiler.compile(files,
+                System.getProperty("java.class.path"), classes, output));
+
+        reflection = new SourceLoader(classes).getModelMap();
+        bytecode = new ClassFileReader(classes).getClassMap();
+
+        SourceReader reader = new SourceReader(files);
+        assertEquals(Collections.emptyMap(), reader.getProblems());
+        source = reader.getClassMap();
+    }
+
+    /**
+     * @return The names of the classes that are not anonymous, which have no source.
+     */
+    private static TreeSet<String> named(Map<String, ClassModel> models) {
+        TreeSet<String> names = new TreeSet<>();
+        for (String name : models.keySet()) {
+            if (!name.matches(".*\\$\\d+")) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static String describe(ClassModel model) {
+        List<String> members = new ArrayList<>();
+        for (MemberModel field : model.getFields()) {
+            members.add("field " + describe(field));
+        }
+        for (MemberModel method : model.getMethods()) {
+            members.add("method " + describe(method));
+        }
+        /* Members are compared by name, the order they are listed in does not matter */
+        Collections.sort(members);
+        return model.getName() + " " + model.getModifiers() + " " + model.isInterface()
+                + " " + model.getError() + "\n" + String.join("\n", members);
+    }
+
+    private static String describe(MemberModel member) {
+        return member + " " + member.getModifiers() + " " + member.getDeclaringClass()
+                + " " + member.getType() + " " + member.getParameterTypes()
+                + " " + member.getExceptionTypes();
+    }
+
+    @Test
+    public void testClasses() {
+        assertEquals(named(reflection), named(bytecode));
+        assertEquals(named(reflection), named(source));
+        assertTrue(named(reflection).contains("fixture.Square$Kind"));
+    }
+
+    @Test
+    public void testModels() {
+        for (String name : named(reflection)) {
+            String expected = describe(reflection.get(name));
+            assertEquals(expected, describe(bytecode.get(name)));
+            assertEquals(expected, describe(source.get(name)));
+        }
+    }
+
+    @Test
+    public void testComparisons() {
+        for (String expected : named(reflection)) {
+            for (String actual : named(reflection)) {
+                ClassComparator comparator = new ClassComparator(reflection.get(expected),
+                        reflection.get(actual));
+                String output = comparator.toString();
+                assertEquals(!expected.equals(actual), comparator.hasDifference());
+
+                assertEquals(output, new ClassComparator(bytecode.get(expected),
+                        bytecode.get(actual)).toString());
+                assertEquals(output, new ClassComparator(source.get(expected),
+                        source.get(actual)).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testInheritedMembers() {
+        ClassModel square = reflection.get("fixture.Square");
+        List<String> sizes = new ArrayList<>();
+        List<String> bridges = new ArrayList<>();
+        for (MemberModel field : square.getFields()) {
+            if (field.getName().equals("size")) {
+                sizes.add(field.getDeclaringClass());
+            }
+        }
+        for (MemberModel method : square.getMethods()) {
+            if (method.getName().equals("clone") || method.getName().equals("get")) {
+                bridges.add(method.getType() + " " + method.getParameterTypes());
+            }
+        }
+        Collections.sort(sizes);
+        Collections.sort(bridges);
+
+        /* The hidden field and the bridges of covariant and generic overrides are listed */
+        assertEquals(List.of("fixture.Base", "fixture.Square"), sizes);
+        assertEquals(List.of("fixture.Square []", "java.lang.Object []",
+                "java.lang.Object []", "java.lang.Object [int]", "java.lang.String []"),
+                bridges);
+        assertFalse(describe(square).contains("internal"));
+    }
+}
@@ -0,0 +1,121 @@
+package chalkbox.java.conformance.comparator;
+
+import org.junit.Test;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that matching classes and overloads by signature gives the same
+ * result as comparing every member
+ */
+public class ClassComparatorTest {
+    private static final String SHAPE = "shape.Shape";
+    private static final String BASE = "shape.Base";
+    private static final String LIST = "java.util.List";
+
+    /**
+     * Build the model of a class, with every generic signature prefixed by a
+     * marker. The comparators never compare generic signatures, so a marker
+     * only makes the signatures of the class and its members differ.
+     */
+    private interface Model extends Function<String, ClassModel> {}
+
+    private static MemberModel field(String marker, String name, String declaringClass,
+                                     int modifiers, String type, String generic) {
+        return MemberModel.field(name, declaringClass, modifiers, type, marker + generic);
+    }
+
+    private static MemberModel method(String marker, String name, int modifiers,
+                                      String returnType, String... parameterTypes) {
+        return MemberModel.method(name, SHAPE, modifiers, returnType,
+                List.of(parameterTypes), new ArrayList<>(),
+                marker + returnType + " " + name + List.of(parameterTypes), false);
+    }
+
+    private static ClassModel shape(String marker, List<MemberModel> fields,
+                                    List<MemberModel> methods) {
+        return new ClassModel(SHAPE, Modifier.PUBLIC, false, marker, fields, methods, null);
+    }
+
+    private static List<MemberModel> fields(String marker) {
+        List<MemberModel> fields = new ArrayList<>();
+        fields.add(field(marker, "size", SHAPE, Modifier.PUBLIC, "int", "int"));
+        fields.add(field(marker, "names", SHAPE, Modifier.PUBLIC, LIST,
+                "java.util.List<java.lang.String>"));
+        return fields;
+    }
+
+    private static List<MemberModel> methods(String marker) {
+        List<MemberModel> methods = new ArrayList<>();
+        methods.add(method(marker, "area", Modifier.PUBLIC, "double"));
+        methods.add(method(marker, "scale", Modifier.PUBLIC, "void", "int"));
+        methods.add(method(marker, "scale", Modifier.PUBLIC, "void", "double"));
+        return methods;
+    }
+
+    private static final Model EXPECTED = marker -> shape(marker, fields(marker), methods(marker));
+
+    /**
+     * Compare a class to the expected class both with and without the
+     * shortcuts, asserting the results are the same.
+     *
+     * @return Whether the classes differ.
+     */
+    private static boolean compare(Model actual) {
+        ClassComparator shortcut = new ClassComparator(EXPECTED.apply(""), actual.apply(""));
+        ClassComparator full = new ClassComparator(EXPECTED.apply(""), actual.apply("full "));
+        assertEquals(full.hasDifference(), shortcut.hasDifference());
+        assertEquals(full.toString(), shortcut.toString());
+        return shortcut.hasDifference();
+    }
+
+    @Test
+    public void testConformant() {
+        assertFalse(compare(EXPECTED));
+    }
+
+    @Test
+    public void testChangedModifier() {
+        assertTrue(compare(marker -> {
+            List<MemberModel> methods = methods(marker);
+            methods.set(0, method(marker, "area", Modifier.PUBLIC | Modifier.FINAL, "double"));
+            return shape(marker, fields(marker), methods);
+        }));
+    }
+
+    @Test
+    public void testChangedGenericType() {
+        /* Only erased types are compared, so the shortcut is skipped but nothing differs */
+        assertFalse(compare(marker -> {
+            List<MemberModel> fields = fields(marker);
+            fields.set(1, field(marker, "names", SHAPE, Modifier.PUBLIC, LIST,
+                    "java.util.List<java.lang.Integer>"));
+            return shape(marker, fields, methods(marker));
+        }));
+    }
+
+    @Test
+    public void testAddedOverload() {
+        assertTrue(compare(marker -> {
+            List<MemberModel> methods = methods(marker);
+            methods.add(1, method(marker, "scale", Modifier.PUBLIC, "void", "long"));
+            return shape(marker, fields(marker), methods);
+        }));
+    }
+
+    @Test
+    public void testHiddenField() {
+        assertTrue(compare(marker -> {
+            List<MemberModel> fields = fields(marker);
+            fields.add(field(marker, "size", BASE, Modifier.PUBLIC, "long", "long"));
+            return shape(marker, fields, methods(marker));
+        }));
+    }
+}
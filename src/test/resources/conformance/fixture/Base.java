@@ -0,0 +1,45 @@
+package fixture;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public abstract class Base<T> implements Shape<Integer> {
+    public static final String NAME = "base";
+    public T value;
+    public int size;
+    protected int hidden;
+
+    public abstract T get();
+
+    public T get(int index) throws IOException, IllegalStateException {
+        return value;
+    }
+
+    public static int count(int... values) {
+        return values.length;
+    }
+
+    public <K extends Comparable<? super K>> Map<K, List<T>> group(List<? extends K> keys) {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public int compareTo(Shape<Integer> other) {
+        return 0;
+    }
+
+    @Override
+    public double area() {
+        return 0;
+    }
+
+    @Override
+    public List<? extends Integer> corners() {
+        return Collections.emptyList();
+    }
+
+    protected void internal() {
+    }
+}
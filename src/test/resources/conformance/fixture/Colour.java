@@ -0,0 +1,31 @@
+package fixture;
+
+import java.util.function.Supplier;
+
+public enum Colour implements Supplier<String> {
+    RED("r") {
+        @Override
+        public Colour complement() {
+            return GREEN;
+        }
+    },
+    GREEN("g") {
+        @Override
+        public Colour complement() {
+            return RED;
+        }
+    };
+
+    public final String code;
+
+    Colour(String code) {
+        this.code = code;
+    }
+
+    public abstract Colour complement();
+
+    @Override
+    public String get() {
+        return code;
+    }
+}
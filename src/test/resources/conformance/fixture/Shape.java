@@ -0,0 +1,19 @@
+package fixture;
+
+import java.util.List;
+
+public interface Shape<T extends Comparable<T>> extends Comparable<Shape<T>> {
+    int SIDES = 0;
+
+    double area();
+
+    List<? extends T> corners();
+
+    default String describe(String... parts) {
+        return String.join(" ", parts);
+    }
+
+    static Shape<Integer> unit() {
+        return null;
+    }
+}
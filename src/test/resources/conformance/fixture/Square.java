@@ -0,0 +1,44 @@
+package fixture;
+
+public class Square extends Base<String> implements Cloneable {
+    public String size;
+    public final int[][] grid = new int[0][];
+
+    public Square() {
+    }
+
+    @Override
+    public String get() {
+        return "";
+    }
+
+    @Override
+    public Square clone() {
+        return this;
+    }
+
+    public synchronized void resize(double factor, Kind kind) {
+    }
+
+    public static class Builder {
+        public Object[] parts;
+
+        public Square build() {
+            return new Square();
+        }
+    }
+
+    public class Corner implements Comparable<Corner> {
+        public int compareTo(Corner other) {
+            return 0;
+        }
+    }
+
+    public enum Kind {
+        SMALL, LARGE;
+
+        public Kind next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+}